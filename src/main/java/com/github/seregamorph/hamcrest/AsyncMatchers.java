@@ -0,0 +1,309 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additional matchers for hamcrest to validate asynchronous state.
+ *
+ * @author seregamorph
+ */
+public class AsyncMatchers {
+
+    private static final long INITIAL_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Waits until the value supplied by <code>supplier</code> matches. The supplier is polled with exponential
+     * backoff (on a virtual thread when running on Java 21+, otherwise on a shared scheduler), the method
+     * returns as soon as the matcher passes.
+     *
+     * @param supplier value supplier, an exception is treated as a mismatch
+     * @param matcher  matcher for supplied value
+     * @param timeout  max time to wait
+     * @return the first matching value
+     * @throws AssertionError with the last mismatch description on timeout
+     */
+    public static <T> T eventually(ThrowingSupplier<? extends T> supplier, Matcher<? super T> matcher,
+                                   Duration timeout) {
+        CompletableFuture<T> future = eventuallyAsync(supplier, matcher, timeout);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted", e);
+        } catch (ExecutionException e) {
+            // rethrow in the caller thread to keep the test stacktrace
+            throw new AssertionError(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #eventually(ThrowingSupplier, Matcher, Duration)}. The returned future
+     * is completed with the first matching value or completed exceptionally with {@link AssertionError}
+     * on timeout. Cancel the future to stop polling.
+     *
+     * @param supplier value supplier, an exception is treated as a mismatch
+     * @param matcher  matcher for supplied value
+     * @param timeout  max time to wait
+     */
+    public static <T> CompletableFuture<T> eventuallyAsync(ThrowingSupplier<? extends T> supplier,
+                                                           Matcher<? super T> matcher, Duration timeout) {
+        Poll<T> poll = new Poll<>(supplier, matcher, timeout);
+        if (Platform.startVirtualThread(poll::runBlocking) == null) {
+            SchedulerHolder.SCHEDULER.execute(poll::runScheduled);
+        }
+        return poll.result;
+    }
+
+    /**
+     * Matcher for {@link Future} that expects that it completes normally within <code>timeout</code>
+     * and applies passed <code>matcher</code> to the result.
+     *
+     * @param matcher matcher for the future result
+     * @param timeout max time to wait for completion
+     */
+    public static <T> Matcher<Future<? extends T>> completesWith(Matcher<? super T> matcher, Duration timeout) {
+        return MatcherMetrics.instrumented("AsyncMatchers.completesWith", new BaseMatcher<Future<? extends T>>() {
+            @Override
+            public boolean matches(Object item) {
+                if (!(item instanceof Future)) {
+                    return false;
+                }
+                try {
+                    return matcher.matches(((Future<?>) item).get(timeout.toNanos(), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException | ExecutionException | CancellationException e) {
+                    return false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public void describeMismatch(Object item, Description mismatchDescription) {
+                // does not wait again, the state after the timeout is described
+                if (!describeNotCompleted(item, timeout, mismatchDescription)) {
+                    Future<?> future = (Future<?>) item;
+                    try {
+                        matcher.describeMismatch(future.get(), mismatchDescription);
+                    } catch (ExecutionException e) {
+                        mismatchDescription.appendText("completed exceptionally with " + e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        mismatchDescription.appendText("was interrupted");
+                    }
+                }
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("Future completed within " + timeout + " with ")
+                        .appendDescriptionOf(matcher);
+            }
+        });
+    }
+
+    /**
+     * Matcher for {@link Future} that expects that it completes exceptionally within <code>timeout</code>
+     * and applies passed <code>matcher</code> to the cause.
+     *
+     * @param matcher matcher for the cause of the failure
+     * @param timeout max time to wait for completion
+     */
+    public static Matcher<Future<?>> completesExceptionally(Matcher<? super Throwable> matcher, Duration timeout) {
+        return MatcherMetrics.instrumented("AsyncMatchers.completesExceptionally", new BaseMatcher<Future<?>>() {
+            @Override
+            public boolean matches(Object item) {
+                if (!(item instanceof Future)) {
+                    return false;
+                }
+                try {
+                    ((Future<?>) item).get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+                    return false;
+                } catch (ExecutionException e) {
+                    return matcher.matches(e.getCause());
+                } catch (TimeoutException | CancellationException e) {
+                    return false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public void describeMismatch(Object item, Description mismatchDescription) {
+                if (!describeNotCompleted(item, timeout, mismatchDescription)) {
+                    Future<?> future = (Future<?>) item;
+                    try {
+                        mismatchDescription.appendText("completed normally with ")
+                                .appendValue(future.get());
+                    } catch (ExecutionException e) {
+                        matcher.describeMismatch(e.getCause(), mismatchDescription);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        mismatchDescription.appendText("was interrupted");
+                    }
+                }
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("Future completed exceptionally within " + timeout + " with ")
+                        .appendDescriptionOf(matcher);
+            }
+        });
+    }
+
+    /**
+     * @return true if the item is not a completed future and the mismatch is described
+     */
+    private static boolean describeNotCompleted(Object item, Duration timeout, Description mismatchDescription) {
+        if (!(item instanceof Future)) {
+            mismatchDescription.appendText("was ").appendValue(item);
+            return true;
+        }
+        Future<?> future = (Future<?>) item;
+        if (future.isCancelled()) {
+            mismatchDescription.appendText("was cancelled");
+            return true;
+        } else if (!future.isDone()) {
+            mismatchDescription.appendText("was not completed within " + timeout);
+            return true;
+        }
+        return false;
+    }
+
+    private static final class Poll<T> {
+
+        private final ThrowingSupplier<? extends T> supplier;
+        private final Matcher<? super T> matcher;
+        private final Duration timeout;
+        private final long deadline;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private long delayNanos = INITIAL_DELAY_NANOS;
+        private int attempts;
+        private Object lastValue;
+        private Exception lastException;
+
+        private Poll(ThrowingSupplier<? extends T> supplier, Matcher<? super T> matcher, Duration timeout) {
+            this.supplier = supplier;
+            this.matcher = matcher;
+            this.timeout = timeout;
+            this.deadline = System.nanoTime() + timeout.toNanos();
+        }
+
+        /**
+         * Polling loop of a virtual thread, sleeping does not hold a platform thread.
+         */
+        void runBlocking() {
+            long nextDelay;
+            while ((nextDelay = attempt()) >= 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(nextDelay);
+                } catch (InterruptedException e) {
+                    result.cancel(false);
+                    return;
+                }
+            }
+        }
+
+        void runScheduled() {
+            long nextDelay = attempt();
+            if (nextDelay >= 0) {
+                SchedulerHolder.SCHEDULER.schedule(this::runScheduled, nextDelay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * @return delay before the next attempt in nanos or -1 if the polling is finished
+         */
+        private long attempt() {
+            if (result.isDone()) {
+                // cancelled
+                return -1;
+            }
+            attempts++;
+            try {
+                T value = supplier.get();
+                if (matcher.matches(value)) {
+                    result.complete(value);
+                    return -1;
+                }
+                lastValue = value;
+                lastException = null;
+            } catch (Exception e) {
+                lastException = e;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                result.completeExceptionally(timeoutError());
+                return -1;
+            }
+            long delay = Math.min(delayNanos, remaining);
+            delayNanos = Math.min(delayNanos * 2, MAX_DELAY_NANOS);
+            return delay;
+        }
+
+        private AssertionError timeoutError() {
+            Description description = new StringDescription();
+            description.appendText("\nExpected: ")
+                    .appendDescriptionOf(matcher);
+            String shortReference = MethodUtils.getLambdaShortReference(supplier);
+            if (shortReference != null) {
+                description.appendText(" after call " + shortReference);
+            }
+            description.appendText(" within " + timeout)
+                    .appendText("\n     but: ");
+            if (lastException != null) {
+                description.appendText("threw " + lastException);
+            } else {
+                matcher.describeMismatch(lastValue, description);
+            }
+            description.appendText(" (after " + attempts + " attempts)");
+            AssertionError error = new AssertionError(description.toString());
+            if (lastException != null) {
+                error.initCause(lastException);
+            }
+            return error;
+        }
+    }
+
+    private static final class SchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private static ScheduledExecutorService createScheduler() {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+                    Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "eventually-poll-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setKeepAliveTime(1, TimeUnit.SECONDS);
+            scheduler.allowCoreThreadTimeOut(true);
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    private AsyncMatchers() {
+    }
+}
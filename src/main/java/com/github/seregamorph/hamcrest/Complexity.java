@@ -0,0 +1,51 @@
+package com.github.seregamorph.hamcrest;
+
+/**
+ * Expected time complexity class, ordered from the fastest to the slowest growing.
+ *
+ * @see PerformanceMatchers#scalesAs(Complexity, java.util.function.IntFunction)
+ */
+public enum Complexity {
+
+    CONSTANT {
+        @Override
+        double apply(double n) {
+            return 1.0;
+        }
+    },
+    LOG_N {
+        @Override
+        double apply(double n) {
+            return Math.log(Math.max(n, 2.0));
+        }
+    },
+    LINEAR {
+        @Override
+        double apply(double n) {
+            return n;
+        }
+    },
+    N_LOG_N {
+        @Override
+        double apply(double n) {
+            return n * Math.log(Math.max(n, 2.0));
+        }
+    },
+    QUADRATIC {
+        @Override
+        double apply(double n) {
+            return n * n;
+        }
+    },
+    CUBIC {
+        @Override
+        double apply(double n) {
+            return n * n * n;
+        }
+    };
+
+    /**
+     * @return the growth function of the input size
+     */
+    abstract double apply(double n);
+}
@@ -0,0 +1,257 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matchers to verify thread-safety of the code under concurrent load. The matched item is the shared state
+ * (e.g. a cache), the action is executed concurrently by all threads of the {@link ConcurrentLoad} released
+ * at once by a start barrier, then the state and the collected results are matched. The load is executed once
+ * per matched item, the mismatch is described by the same run.
+ *
+ * @author seregamorph
+ */
+public class ConcurrencyMatchers {
+
+    private static final int MAX_REPORTED_EXCEPTIONS = 5;
+
+    /**
+     * Matcher that executes <code>action</code> concurrently under <code>load</code> and then matches the state.
+     * Fails if the action throws (including errors, e.g. {@link AssertionError}). E.g.
+     * <pre>
+     * assertThat(counter, afterConcurrentLoad(ConcurrentLoad.threads(8).iterations(10_000),
+     *     AtomicLong::incrementAndGet, where(AtomicLong::get, equalTo(80_000L))));
+     * </pre>
+     *
+     * @param load         threads and iterations
+     * @param action       action on the shared state
+     * @param stateMatcher matcher for the state after the load
+     */
+    public static <S> Matcher<S> afterConcurrentLoad(ConcurrentLoad load, ThrowingFunction<? super S, ?> action,
+                                                     Matcher<? super S> stateMatcher) {
+        return MatcherMetrics.instrumented("ConcurrencyMatchers.afterConcurrentLoad", action,
+                new LoadMatcher<S, Object>(load, action, stateMatcher, null));
+    }
+
+    /**
+     * Matcher that executes <code>action</code> concurrently under <code>load</code> and then matches the state
+     * and the results of all action executions. The results are collected per thread and passed to
+     * <code>resultsMatcher</code> in the order of threads, so memory grows with the number of iterations.
+     * Fails if the action throws (including errors). E.g. verify that the generated ids are unique:
+     * <pre>
+     * assertThat(idGenerator, afterConcurrentLoad(ConcurrentLoad.threads(8), IdGenerator::nextId,
+     *     anything(), hasNoDuplicates()));
+     * </pre>
+     *
+     * @param load           threads and iterations
+     * @param action         action on the shared state
+     * @param stateMatcher   matcher for the state after the load
+     * @param resultsMatcher matcher for the results of the action
+     */
+    public static <S, R> Matcher<S> afterConcurrentLoad(ConcurrentLoad load,
+                                                        ThrowingFunction<? super S, ? extends R> action,
+                                                        Matcher<? super S> stateMatcher,
+                                                        Matcher<? super List<R>> resultsMatcher) {
+        return MatcherMetrics.instrumented("ConcurrencyMatchers.afterConcurrentLoad", action,
+                new LoadMatcher<>(load, action, stateMatcher, resultsMatcher));
+    }
+
+    private static final class LoadMatcher<S, R> extends MeasuringMatcher<S, LoadRun<R>> {
+
+        private final ConcurrentLoad load;
+        private final ThrowingFunction<? super S, ? extends R> action;
+        private final Matcher<? super S> stateMatcher;
+        @Nullable
+        private final Matcher<? super List<R>> resultsMatcher;
+
+        private LoadMatcher(ConcurrentLoad load, ThrowingFunction<? super S, ? extends R> action,
+                            Matcher<? super S> stateMatcher, @Nullable Matcher<? super List<R>> resultsMatcher) {
+            this.load = load;
+            this.action = action;
+            this.stateMatcher = stateMatcher;
+            this.resultsMatcher = resultsMatcher;
+        }
+
+        @Override
+        LoadRun<R> measure(S state) throws InterruptedException {
+            return new LoadRun<R>(load, state, action, resultsMatcher != null).run();
+        }
+
+        @Override
+        boolean matchesResult(LoadRun<R> run) {
+            return run.exceptions.isEmpty()
+                    && stateMatcher.matches(run.state)
+                    && (resultsMatcher == null || resultsMatcher.matches(run.getResults()));
+        }
+
+        @Override
+        void describeResult(LoadRun<R> run, Description mismatchDescription) {
+            if (!run.exceptions.isEmpty()) {
+                mismatchDescription.appendText("threw " + run.exceptionCount.get() + " exception(s), "
+                        + run.describeThroughput() + ":");
+                for (String exception : run.exceptions) {
+                    mismatchDescription.appendText("\n    " + exception);
+                }
+                return;
+            }
+            if (!stateMatcher.matches(run.state)) {
+                mismatchDescription.appendText("state ");
+                stateMatcher.describeMismatch(run.state, mismatchDescription);
+            } else {
+                mismatchDescription.appendText("results ");
+                resultsMatcher.describeMismatch(run.getResults(), mismatchDescription);
+            }
+            mismatchDescription.appendText(", " + run.describeThroughput());
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("state ")
+                    .appendDescriptionOf(stateMatcher);
+            if (resultsMatcher != null) {
+                description.appendText(" and results ")
+                        .appendDescriptionOf(resultsMatcher);
+            }
+            String shortReference = MethodUtils.getLambdaShortReference(action);
+            description.appendText(" after concurrent load of " + load
+                    + (shortReference == null ? "" : " calling " + shortReference));
+        }
+    }
+
+    /**
+     * Single execution of the load: the threads are started, wait for the start barrier, execute the action
+     * and collect the results in thread-confined lists.
+     */
+    private static final class LoadRun<R> {
+
+        private final ConcurrentLoad load;
+        private final Object state;
+        private final ThrowingFunction<Object, ? extends R> action;
+        private final boolean collectResults;
+
+        private final CountDownLatch ready;
+        private final CountDownLatch start = new CountDownLatch(1);
+        private final long[] operations;
+        private final List<List<R>> results;
+        private final List<String> exceptions = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger exceptionCount = new AtomicInteger();
+        private long deadline;
+        private long elapsedNanos;
+        private boolean virtualThreads;
+
+        @SuppressWarnings("unchecked")
+        private <S> LoadRun(ConcurrentLoad load, S state, ThrowingFunction<? super S, ? extends R> action,
+                            boolean collectResults) {
+            this.load = load;
+            this.state = state;
+            this.action = (ThrowingFunction<Object, ? extends R>) action;
+            this.collectResults = collectResults;
+            this.ready = new CountDownLatch(load.getThreads());
+            this.operations = new long[load.getThreads()];
+            this.results = new ArrayList<>(Collections.nCopies(load.getThreads(), null));
+        }
+
+        LoadRun<R> run() throws InterruptedException {
+            List<Thread> threads = new ArrayList<>(load.getThreads());
+            virtualThreads = load.isVirtualThreads();
+            for (int i = 0; i < load.getThreads(); i++) {
+                int threadIndex = i;
+                Runnable task = () -> execute(threadIndex);
+                Thread thread = virtualThreads ? Platform.startVirtualThread(task) : null;
+                if (thread == null) {
+                    // not supported by the running JVM
+                    virtualThreads = false;
+                    thread = new Thread(task, "concurrent-load-" + i);
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                threads.add(thread);
+            }
+            try {
+                ready.await();
+                Duration duration = load.getDuration();
+                long startNanos = System.nanoTime();
+                deadline = duration == null ? 0L : startNanos + duration.toNanos();
+                // publishes deadline
+                start.countDown();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                elapsedNanos = System.nanoTime() - startNanos;
+            } catch (InterruptedException e) {
+                threads.forEach(Thread::interrupt);
+                throw e;
+            }
+            return this;
+        }
+
+        private void execute(int threadIndex) {
+            List<R> threadResults = collectResults ? new ArrayList<>() : null;
+            long count = 0;
+            try {
+                ready.countDown();
+                start.await();
+                Duration duration = load.getDuration();
+                if (duration == null) {
+                    for (int i = 0; i < load.getIterations(); i++) {
+                        R result = action.apply(state);
+                        count++;
+                        if (threadResults != null) {
+                            threadResults.add(result);
+                        }
+                    }
+                } else {
+                    while (System.nanoTime() - deadline < 0) {
+                        R result = action.apply(state);
+                        count++;
+                        if (threadResults != null) {
+                            threadResults.add(result);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                // including AssertionError and other errors, which would be lost in the uncaught handler
+                exceptionCount.incrementAndGet();
+                if (exceptions.size() < MAX_REPORTED_EXCEPTIONS) {
+                    exceptions.add("thread " + threadIndex + " at iteration " + count + ": " + e);
+                }
+            } finally {
+                // published via Thread.join
+                operations[threadIndex] = count;
+                results.set(threadIndex, threadResults);
+            }
+        }
+
+        List<R> getResults() {
+            List<R> allResults = new ArrayList<>();
+            for (List<R> threadResults : results) {
+                allResults.addAll(threadResults);
+            }
+            return allResults;
+        }
+
+        String describeThroughput() {
+            long totalOperations = 0;
+            for (long threadOperations : operations) {
+                totalOperations += threadOperations;
+            }
+            double seconds = Math.max(elapsedNanos, 1L) / 1e9;
+            return String.format(Locale.ROOT, "%d operations on %d %s threads in %s, throughput %,.0f ops/s "
+                            + "per thread (%,.0f ops/s total)", totalOperations, operations.length,
+                    virtualThreads ? "virtual" : "platform", LatencyHistogram.formatNanos(elapsedNanos),
+                    totalOperations / seconds / operations.length, totalOperations / seconds);
+        }
+    }
+
+    private ConcurrencyMatchers() {
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Configuration of concurrent load: number of threads, iterations per thread or duration, platform or virtual
+ * threads. Immutable, e.g.
+ * <pre>
+ * ConcurrentLoad.threads(8).iterations(10_000)
+ * ConcurrentLoad.threads(1_000).duration(Duration.ofSeconds(1)).virtualThreads()
+ * </pre>
+ *
+ * @author seregamorph
+ * @see ConcurrencyMatchers
+ */
+public final class ConcurrentLoad {
+
+    static final int DEFAULT_ITERATIONS = 1_000;
+
+    private final int threads;
+    private final int iterations;
+    @Nullable
+    private final Duration duration;
+    private final boolean virtualThreads;
+
+    private ConcurrentLoad(int threads, int iterations, @Nullable Duration duration, boolean virtualThreads) {
+        this.threads = threads;
+        this.iterations = iterations;
+        this.duration = duration;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Load of <code>threads</code> platform threads, each executes the action {@value #DEFAULT_ITERATIONS} times.
+     *
+     * @param threads number of threads
+     */
+    public static ConcurrentLoad threads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads should be positive: " + threads);
+        }
+        return new ConcurrentLoad(threads, DEFAULT_ITERATIONS, null, false);
+    }
+
+    /**
+     * @param iterations number of action executions per thread
+     */
+    public ConcurrentLoad iterations(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations should be positive: " + iterations);
+        }
+        return new ConcurrentLoad(threads, iterations, null, virtualThreads);
+    }
+
+    /**
+     * @param duration each thread executes the action repeatedly during this time (instead of iteration count)
+     */
+    public ConcurrentLoad duration(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration should be positive: " + duration);
+        }
+        return new ConcurrentLoad(threads, 0, duration, virtualThreads);
+    }
+
+    /**
+     * Runs the load on virtual threads (Java 21+), platform threads are used if they are not supported.
+     */
+    public ConcurrentLoad virtualThreads() {
+        return new ConcurrentLoad(threads, iterations, duration, true);
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    int getIterations() {
+        return iterations;
+    }
+
+    @Nullable
+    Duration getDuration() {
+        return duration;
+    }
+
+    boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public String toString() {
+        return threads + (virtualThreads ? " virtual" : " platform") + " threads"
+                + (duration == null ? " x " + iterations + " iterations" : " for " + duration);
+    }
+}
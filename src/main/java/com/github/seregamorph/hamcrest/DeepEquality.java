@@ -0,0 +1,452 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Field-by-field comparison of object graphs. The field getters are resolved once per class and cached as
+ * {@link MethodHandle} arrays, so the comparison does not use bean introspection or reflective access checks.
+ * The graphs are walked iteratively (deep graphs do not overflow the stack) and the walk stops on the first
+ * difference. Already compared pairs of objects are tracked by identity, so cycles and shared objects are
+ * compared once.
+ * <p>
+ * JDK value classes (strings, numbers, enums, dates, etc.) and the classes whose fields are not accessible
+ * are compared via <code>equals</code> and are not tracked by identity. Primitive arrays are compared via
+ * {@link Arrays#equals} without boxing the elements. Arrays and lists are compared by elements, sets and maps by
+ * <code>equals</code> of the elements and keys, the map values are compared deeply. The values of
+ * <code>AtomicReference</code>, <code>AtomicInteger</code>, <code>AtomicLong</code> and <code>AtomicBoolean</code>
+ * are compared deeply as <code>get()</code>. Other JDK classes that do not override <code>equals</code>
+ * (e.g. <code>StringBuilder</code>, <code>AtomicIntegerArray</code>) are compared by identity. Static, transient
+ * and synthetic fields are ignored.
+ */
+final class DeepEquality {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<FieldGetters> FIELD_GETTERS = new ClassValue<FieldGetters>() {
+        @Override
+        protected FieldGetters computeValue(Class<?> type) {
+            return FieldGetters.of(type);
+        }
+    };
+
+    /**
+     * @return description of the first difference (with the path of the field) or null if the graphs are equal
+     */
+    @Nullable
+    static String findDifference(Object actual, Object expected) {
+        Map<Object, Object> compared = new IdentityHashMap<>();
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(null, rootName(expected), actual, expected));
+        List<Frame> children = new ArrayList<>();
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            String difference = compare(frame, compared, children);
+            if (difference != null) {
+                return frame.path() + " " + difference;
+            }
+            // the children are compared in declaration order
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+            children.clear();
+        }
+        return null;
+    }
+
+    /**
+     * Compares the frame shallowly and adds the pairs to compare deeply to <code>children</code>.
+     *
+     * @return the difference or null
+     */
+    @Nullable
+    private static String compare(Frame frame, Map<Object, Object> compared, List<Frame> children) {
+        Object actual = frame.actual;
+        Object expected = frame.expected;
+        if (actual == expected) {
+            return null;
+        }
+        if (actual == null || expected == null) {
+            return "was " + describe(actual) + ", expected " + describe(expected);
+        }
+        Class<?> type = expected.getClass();
+        Class<?> comparedType = comparedType(type);
+        if (comparedType == null ? actual.getClass() != type : !comparedType.isInstance(actual)) {
+            return "was an instance of " + actual.getClass().getName() + ", expected "
+                    + (comparedType == null ? type : comparedType).getName();
+        }
+
+        if (type.isArray()) {
+            int length = Array.getLength(expected);
+            if (Array.getLength(actual) != length) {
+                return "length was " + Array.getLength(actual) + ", expected " + length;
+            }
+            if (type.getComponentType().isPrimitive()) {
+                int index = primitiveMismatch(actual, expected);
+                if (index >= 0) {
+                    // only the different element is boxed to be reported
+                    children.add(new Frame(frame, "[" + index + "]", Array.get(actual, index),
+                            Array.get(expected, index)));
+                }
+                return null;
+            }
+            if (!markCompared(compared, actual, expected)) {
+                // cycle or shared object
+                return null;
+            }
+            Object[] actualArray = (Object[]) actual;
+            Object[] expectedArray = (Object[]) expected;
+            for (int i = 0; i < length; i++) {
+                children.add(new Frame(frame, "[" + i + "]", actualArray[i], expectedArray[i]));
+            }
+        } else if (expected instanceof Set) {
+            Set<?> actualSet = (Set<?>) actual;
+            Set<?> expectedSet = (Set<?>) expected;
+            if (actualSet.size() != expectedSet.size()) {
+                return "size was " + actualSet.size() + ", expected " + expectedSet.size();
+            }
+            for (Object element : expectedSet) {
+                if (!actualSet.contains(element)) {
+                    return "has no element " + describe(element);
+                }
+            }
+        } else if (expected instanceof Collection) {
+            if (!markCompared(compared, actual, expected)) {
+                return null;
+            }
+            Collection<?> actualCollection = (Collection<?>) actual;
+            Collection<?> expectedCollection = (Collection<?>) expected;
+            if (actualCollection.size() != expectedCollection.size()) {
+                return "size was " + actualCollection.size() + ", expected " + expectedCollection.size();
+            }
+            Iterator<?> actualIterator = actualCollection.iterator();
+            int index = 0;
+            for (Object element : expectedCollection) {
+                children.add(new Frame(frame, "[" + index++ + "]", actualIterator.next(), element));
+            }
+        } else if (expected instanceof Map) {
+            if (!markCompared(compared, actual, expected)) {
+                return null;
+            }
+            Map<?, ?> actualMap = (Map<?, ?>) actual;
+            Map<?, ?> expectedMap = (Map<?, ?>) expected;
+            if (actualMap.size() != expectedMap.size()) {
+                return "size was " + actualMap.size() + ", expected " + expectedMap.size();
+            }
+            for (Map.Entry<?, ?> entry : expectedMap.entrySet()) {
+                Object key = entry.getKey();
+                if (!actualMap.containsKey(key)) {
+                    return "has no key " + describe(key);
+                }
+                children.add(new Frame(frame, "[" + key + "]", actualMap.get(key), entry.getValue()));
+            }
+        } else if (expected instanceof AtomicReference) {
+            if (!markCompared(compared, actual, expected)) {
+                return null;
+            }
+            children.add(new Frame(frame, ".get()", ((AtomicReference<?>) actual).get(),
+                    ((AtomicReference<?>) expected).get()));
+        } else if (expected instanceof AtomicInteger || expected instanceof AtomicLong) {
+            // the classes are the same, the values are compared as Long
+            children.add(new Frame(frame, ".get()", ((Number) actual).longValue(), ((Number) expected).longValue()));
+        } else if (expected instanceof AtomicBoolean) {
+            children.add(new Frame(frame, ".get()", ((AtomicBoolean) actual).get(), ((AtomicBoolean) expected).get()));
+        } else {
+            FieldGetters getters = FIELD_GETTERS.get(type);
+            if (getters.names == null) {
+                // leaf value, not tracked by identity
+                return actual.equals(expected) ? null
+                        : "was " + describe(actual) + ", expected " + describe(expected);
+            }
+            if (!markCompared(compared, actual, expected)) {
+                return null;
+            }
+            for (int i = 0; i < getters.names.length; i++) {
+                children.add(new Frame(frame, "." + getters.names[i], getters.get(i, actual),
+                        getters.get(i, expected)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares the primitive arrays of the same class and length.
+     *
+     * @return index of the first different element or -1 if the arrays are equal
+     */
+    private static int primitiveMismatch(Object actual, Object expected) {
+        if (actual instanceof int[]) {
+            int[] a = (int[]) actual;
+            int[] e = (int[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (a[i] != e[i]) {
+                    return i;
+                }
+            }
+        } else if (actual instanceof long[]) {
+            long[] a = (long[]) actual;
+            long[] e = (long[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (a[i] != e[i]) {
+                    return i;
+                }
+            }
+        } else if (actual instanceof byte[]) {
+            byte[] a = (byte[]) actual;
+            byte[] e = (byte[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (a[i] != e[i]) {
+                    return i;
+                }
+            }
+        } else if (actual instanceof char[]) {
+            char[] a = (char[]) actual;
+            char[] e = (char[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (a[i] != e[i]) {
+                    return i;
+                }
+            }
+        } else if (actual instanceof short[]) {
+            short[] a = (short[]) actual;
+            short[] e = (short[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (a[i] != e[i]) {
+                    return i;
+                }
+            }
+        } else if (actual instanceof boolean[]) {
+            boolean[] a = (boolean[]) actual;
+            boolean[] e = (boolean[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (a[i] != e[i]) {
+                    return i;
+                }
+            }
+        } else if (actual instanceof double[]) {
+            double[] a = (double[]) actual;
+            double[] e = (double[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            // same semantics as Arrays.equals and Double.equals (NaN equals NaN, 0.0 differs from -0.0)
+            for (int i = 0; i < e.length; i++) {
+                if (Double.doubleToLongBits(a[i]) != Double.doubleToLongBits(e[i])) {
+                    return i;
+                }
+            }
+        } else {
+            float[] a = (float[]) actual;
+            float[] e = (float[]) expected;
+            if (Arrays.equals(a, e)) {
+                return -1;
+            }
+            for (int i = 0; i < e.length; i++) {
+                if (Float.floatToIntBits(a[i]) != Float.floatToIntBits(e[i])) {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalStateException("Arrays are not equal, but no different element found");
+    }
+
+    /**
+     * @return false if the pair was already compared (or is being compared)
+     */
+    private static boolean markCompared(Map<Object, Object> compared, Object actual, Object expected) {
+        Object previous = compared.putIfAbsent(actual, expected);
+        if (previous == null) {
+            return true;
+        }
+        if (previous == expected) {
+            return false;
+        }
+        // the same actual object is compared with several expected ones (rare)
+        Set<Object> expectedSet;
+        if (previous instanceof ExpectedSet) {
+            expectedSet = ((ExpectedSet) previous).objects;
+        } else {
+            expectedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            expectedSet.add(previous);
+            compared.put(actual, new ExpectedSet(expectedSet));
+        }
+        return expectedSet.add(expected);
+    }
+
+    /**
+     * Collections and maps are compared by the content regardless of implementation (e.g. ArrayList and List.of).
+     *
+     * @return the interface to compare by or null if the classes should be the same
+     */
+    @Nullable
+    private static Class<?> comparedType(Class<?> type) {
+        if (Set.class.isAssignableFrom(type)) {
+            return Set.class;
+        } else if (List.class.isAssignableFrom(type)) {
+            return List.class;
+        } else if (Map.class.isAssignableFrom(type)) {
+            return Map.class;
+        }
+        return null;
+    }
+
+    private static String rootName(Object expected) {
+        if (expected.getClass().isArray()) {
+            return "array";
+        }
+        Class<?> comparedType = comparedType(expected.getClass());
+        String simpleName = (comparedType == null ? expected.getClass() : comparedType).getSimpleName();
+        return simpleName.isEmpty() ? "object"
+                : Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+    }
+
+    private static String describe(@Nullable Object value) {
+        if (value == null) {
+            return "null";
+        }
+        return value instanceof String ? "\"" + value + "\"" : "<" + value + ">";
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        return type.getClassLoader() == null
+                || type.getName().startsWith("java.")
+                || type.getName().startsWith("javax.");
+    }
+
+    private static final class Frame {
+
+        @Nullable
+        private final Frame parent;
+        private final String segment;
+        private final Object actual;
+        private final Object expected;
+
+        private Frame(@Nullable Frame parent, String segment, Object actual, Object expected) {
+            this.parent = parent;
+            this.segment = segment;
+            this.actual = actual;
+            this.expected = expected;
+        }
+
+        /**
+         * The path is built only for the reported difference.
+         */
+        String path() {
+            StringBuilder sb = new StringBuilder();
+            for (Frame frame = this; frame != null; frame = frame.parent) {
+                sb.insert(0, frame.segment);
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class ExpectedSet {
+
+        private final Set<Object> objects;
+
+        private ExpectedSet(Set<Object> objects) {
+            this.objects = objects;
+        }
+    }
+
+    private static final class FieldGetters {
+
+        private static final FieldGetters EQUALS = new FieldGetters(null, null);
+
+        /**
+         * Names of the compared fields or null if the class is compared via equals.
+         */
+        @Nullable
+        private final String[] names;
+        @Nullable
+        private final MethodHandle[] getters;
+
+        private FieldGetters(@Nullable String[] names, @Nullable MethodHandle[] getters) {
+            this.names = names;
+            this.getters = getters;
+        }
+
+        static FieldGetters of(Class<?> type) {
+            if (isJdkClass(type) || Enum.class.isAssignableFrom(type)) {
+                return EQUALS;
+            }
+            List<Field> fields = new ArrayList<>();
+            // superclass fields first
+            for (Class<?> cl = type; cl != null && cl != Object.class; cl = cl.getSuperclass()) {
+                List<Field> declaredFields = new ArrayList<>();
+                for (Field field : cl.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                        declaredFields.add(field);
+                    }
+                }
+                fields.addAll(0, declaredFields);
+            }
+
+            String[] names = new String[fields.size()];
+            MethodHandle[] getters = new MethodHandle[fields.size()];
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                try {
+                    field.setAccessible(true);
+                    getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                } catch (IllegalAccessException | RuntimeException e) {
+                    // InaccessibleObjectException (Java 9+, not opened module) or SecurityException
+                    return EQUALS;
+                }
+                names[i] = field.getName();
+            }
+            return new FieldGetters(names, getters);
+        }
+
+        Object get(int index, Object obj) {
+            try {
+                return (Object) getters[index].invokeExact(obj);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to read field " + names[index] + " of " + obj.getClass(), e);
+            }
+        }
+    }
+
+    private DeepEquality() {
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.SortedSet;
+
+/**
+ * Additional matchers for hamcrest to validate that collection has no duplicates.
+ *
+ * @author seregamorph
+ */
+public class DistinctMatchers {
+
+    /**
+     * Checks that collection has no duplicate (by equals) elements. Already strictly ordered lists and sorted sets
+     * are verified via adjacent comparison without allocation, {@link Integer} and {@link Long} elements
+     * are tracked in primitive open-addressing maps. Other iterables are iterated once.
+     */
+    public static <T> Matcher<Iterable<T>> hasNoDuplicates() {
+        return distinct(null);
+    }
+
+    /**
+     * Checks that collection has no elements with duplicate (by equals) keys. Already strictly ordered keys of
+     * lists and sorted sets are verified via adjacent comparison without allocation, {@link Integer} and
+     * {@link Long} keys are tracked in primitive open-addressing maps. Other iterables are iterated once.
+     *
+     * @param key key extracting function. Note: it may be called twice per element of a list or sorted set
+     */
+    public static <T> Matcher<Iterable<T>> hasNoDuplicates(ThrowingFunction<? super T, ?> key) {
+        return distinct(key);
+    }
+
+    private static <T> Matcher<Iterable<T>> distinct(@Nullable ThrowingFunction<? super T, ?> key) {
+        Matcher<Iterable<T>> matcher = new TypeSafeDiagnosingMatcher<Iterable<T>>() {
+
+            @Override
+            protected boolean matchesSafely(Iterable<T> items, Description mismatchDescription) {
+                // fast path: duplicates of strictly ordered keys are impossible. Only for the inputs that are
+                // cheap to iterate twice and likely ordered
+                if ((items instanceof SortedSet || items instanceof RandomAccess)
+                        && OrderMatchers.isOrdered(() -> new KeyIterator<>(items.iterator(), key),
+                        DistinctMatchers::compareAdjacentKeys, false, null)) {
+                    return true;
+                }
+
+                KeyIndex keyIndex = new KeyIndex(items instanceof Collection ? ((Collection<?>) items).size() : 16);
+                int index = 0;
+                for (T item : items) {
+                    Object itemKey = extractKey(item, key);
+                    int firstIndex = keyIndex.putIfAbsent(itemKey, index);
+                    if (firstIndex >= 0) {
+                        describeDuplicate(items, itemKey, firstIndex, item, index, mismatchDescription);
+                        return false;
+                    }
+                    index++;
+                }
+                return true;
+            }
+
+            private void describeDuplicate(Iterable<T> items, @Nullable Object duplicateKey, int firstIndex,
+                                           T duplicate, int duplicateIndex, Description mismatchDescription) {
+                // the first element is not kept, it's taken from the list or described by the key
+                String first = items instanceof List ? String.valueOf(((List<T>) items).get(firstIndex))
+                        : key == null ? String.valueOf(duplicateKey) : "element with key " + duplicateKey;
+                mismatchDescription.appendText("Found duplicate elements " + first + " at index " + firstIndex
+                        + " and " + duplicate + " at index " + duplicateIndex);
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("Has no duplicates");
+                if (key != null) {
+                    String shortReference = MethodUtils.getLambdaShortReference(key);
+                    description.appendText(shortReference == null ? " by extracted key"
+                            : " by " + shortReference);
+                }
+            }
+        };
+        return MatcherMetrics.instrumented("DistinctMatchers.hasNoDuplicates", key, matcher);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareAdjacentKeys(@Nullable Object first, @Nullable Object next) {
+        if (first == null || next == null || first.getClass() != next.getClass() || !(first instanceof Comparable)) {
+            // reported as unordered, so the fast path gives up
+            return 1;
+        }
+        return ((Comparable) first).compareTo(next);
+    }
+
+    @Nullable
+    private static <T> Object extractKey(T item, @Nullable ThrowingFunction<? super T, ?> key) {
+        if (key == null) {
+            return item;
+        }
+        try {
+            return key.apply(item);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static final class KeyIterator<T> implements Iterator<Object> {
+
+        private final Iterator<T> iterator;
+        @Nullable
+        private final ThrowingFunction<? super T, ?> key;
+
+        private KeyIterator(Iterator<T> iterator, @Nullable ThrowingFunction<? super T, ?> key) {
+            this.iterator = iterator;
+            this.key = key;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            return extractKey(iterator.next(), key);
+        }
+    }
+
+    /**
+     * Index of the first occurrence by key, {@link Integer} and {@link Long} keys are kept unboxed. As Integer
+     * and Long are never equal to each other or to other types, keys of different types may be tracked
+     * in separate maps.
+     */
+    private static final class KeyIndex {
+
+        private final int expectedSize;
+        private int nullIndex = -1;
+        private IntIntHashMap ints;
+        private LongIntHashMap longs;
+        private Map<Object, Integer> objects;
+
+        private KeyIndex(int expectedSize) {
+            this.expectedSize = expectedSize;
+        }
+
+        /**
+         * @return the index of the first occurrence of the key or -1 if the key was added
+         */
+        int putIfAbsent(@Nullable Object key, int index) {
+            if (key == null) {
+                int existing = nullIndex;
+                if (existing < 0) {
+                    nullIndex = index;
+                }
+                return existing;
+            } else if (key instanceof Integer) {
+                if (ints == null) {
+                    ints = new IntIntHashMap(expectedSize);
+                }
+                return ints.putIfAbsent((Integer) key, index);
+            } else if (key instanceof Long) {
+                if (longs == null) {
+                    longs = new LongIntHashMap(expectedSize);
+                }
+                return longs.putIfAbsent((Long) key, index);
+            } else {
+                if (objects == null) {
+                    objects = new HashMap<>();
+                }
+                Integer existing = objects.putIfAbsent(key, index);
+                return existing == null ? -1 : existing;
+            }
+        }
+    }
+
+    private DistinctMatchers() {
+    }
+}
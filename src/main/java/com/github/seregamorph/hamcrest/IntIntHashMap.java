@@ -0,0 +1,94 @@
+package com.github.seregamorph.hamcrest;
+
+/**
+ * Open-addressing (linear probing) map of primitive int keys to non-negative int values (e.g. the index of the
+ * first occurrence). Takes 8 bytes per slot instead of two boxed {@link Integer} plus
+ * a {@link java.util.HashMap} entry per element.
+ */
+final class IntIntHashMap {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * 0 is the marker of an empty slot, so the zero key is tracked separately.
+     */
+    private int[] keys;
+    private int[] values;
+    private int zeroValue = -1;
+    private int size;
+    private int resizeThreshold;
+
+    IntIntHashMap(int expectedSize) {
+        allocate(LongIntHashMap.capacityFor(expectedSize));
+    }
+
+    /**
+     * @param value non-negative value
+     * @return the value of the present key or -1 if the key was added
+     */
+    int putIfAbsent(int key, int value) {
+        if (key == 0) {
+            int existing = zeroValue;
+            if (existing < 0) {
+                zeroValue = value;
+                size++;
+            }
+            return existing;
+        }
+        int mask = keys.length - 1;
+        for (int index = mix(key) & mask; ; index = (index + 1) & mask) {
+            int slot = keys[index];
+            if (slot == 0) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeThreshold) {
+                    rehash(keys.length << 1);
+                }
+                return -1;
+            } else if (slot == key) {
+                return values[index];
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("IntIntHashMap capacity exceeded: " + size);
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int index = mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        // load factor 0.75
+        resizeThreshold = capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Murmur3 32-bit finalizer, sequential keys are spread across the table.
+     */
+    static int mix(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,359 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matchers for the items of a JSON array in a raw document (e.g. MockMvc response body), an alternative of
+ * <code>jsonPath("$[*].id", strictOrdered())</code> for large responses. The document is tokenized in a single
+ * streaming pass and the values are verified as they are read, so no tree or list of the values is built and
+ * the memory does not depend on the size of the array. The verification stops on the first mismatch.
+ * <p>
+ * The matched item is <code>byte[]</code> (UTF-8), {@link InputStream} (not closed) or {@link String}. The path
+ * is a restricted JSONPath with a single wildcard: <code>$[*].id</code>, <code>$.items[*].id</code>,
+ * <code>$.items[*].meta.id</code> or <code>$[*]</code> for an array of scalars. The values are integral numbers
+ * as {@link Long}, other numbers as {@link BigDecimal}, strings, booleans and null. E.g.
+ * <pre>
+ * mockMvc.perform(get("/api/items"))
+ *         .andExpect(result -&gt; assertThat(result.getResponse().getContentAsByteArray(),
+ *                 strictOrderedJsonArray("$[*].id")));
+ * </pre>
+ *
+ * @author seregamorph
+ */
+public class JsonMatchers {
+
+    /**
+     * The item does not have the field of the path.
+     */
+    private static final Object MISSING = new Object();
+    /**
+     * The value of the path is an object or array.
+     */
+    private static final Object NOT_SCALAR = new Object();
+
+    /**
+     * Checks that the values of the JSON array items are ordered. Does not allow equal values.
+     * Numbers, strings and booleans are compared naturally, the values of different types and nulls are
+     * not comparable (mismatch).
+     *
+     * @param path path of the values, e.g. <code>$[*].id</code>
+     */
+    public static Matcher<Object> strictOrderedJsonArray(String path) {
+        return orderedJsonArray(path, false);
+    }
+
+    /**
+     * Checks that the values of the JSON array items are ordered. Allows equal values.
+     * Numbers, strings and booleans are compared naturally, the values of different types and nulls are
+     * not comparable (mismatch).
+     *
+     * @param path path of the values, e.g. <code>$[*].id</code>
+     */
+    public static Matcher<Object> softOrderedJsonArray(String path) {
+        return orderedJsonArray(path, true);
+    }
+
+    /**
+     * Checks that the values of all JSON array items match, e.g.
+     * <code>everyJsonArrayItem("$[*].price", greaterThan(BigDecimal.ZERO))</code>.
+     *
+     * @param path        path of the values, e.g. <code>$[*].id</code>
+     * @param itemMatcher matcher for the value of every item
+     */
+    public static Matcher<Object> everyJsonArrayItem(String path, Matcher<?> itemMatcher) {
+        ArrayPath arrayPath = ArrayPath.parse(path);
+        return MatcherMetrics.instrumented("JsonMatchers.everyJsonArrayItem", new JsonArrayMatcher(arrayPath) {
+            @Override
+            ItemVisitor newVisitor() {
+                return (index, value) -> {
+                    if (itemMatcher.matches(value)) {
+                        return null;
+                    }
+                    Description mismatchDescription = new StringDescription()
+                            .appendText("an item at index " + index + " ");
+                    itemMatcher.describeMismatch(value, mismatchDescription);
+                    return mismatchDescription.toString();
+                };
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("every item of JSON " + arrayPath + " is ")
+                        .appendDescriptionOf(itemMatcher);
+            }
+        });
+    }
+
+    private static Matcher<Object> orderedJsonArray(String path, boolean allowEqual) {
+        ArrayPath arrayPath = ArrayPath.parse(path);
+        String factory = allowEqual ? "JsonMatchers.softOrderedJsonArray" : "JsonMatchers.strictOrderedJsonArray";
+        return MatcherMetrics.instrumented(factory, new JsonArrayMatcher(arrayPath) {
+            @Override
+            ItemVisitor newVisitor() {
+                // keeps the previous value of a single scan
+                return new ItemVisitor() {
+                    @Nullable
+                    private Object previous;
+
+                    @Nullable
+                    @Override
+                    public String visit(int index, @Nullable Object value) {
+                        if (index > 0) {
+                            int result = compare(previous, value);
+                            if (result == Integer.MIN_VALUE) {
+                                return "Found incomparable elements " + previous + " and " + value
+                                        + " at index " + (index - 1) + " and " + index;
+                            } else if (result == 0 && !allowEqual) {
+                                return "Found equal elements " + previous + " and " + value
+                                        + " at index " + (index - 1) + " and " + index;
+                            } else if (result > 0) {
+                                return "Found unordered elements " + previous + " and " + value
+                                        + " at index " + (index - 1) + " and " + index;
+                            }
+                        }
+                        previous = value;
+                        return null;
+                    }
+                };
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("JSON " + arrayPath + " " + (allowEqual ? "softly" : "strictly")
+                        + " ordered");
+            }
+        });
+    }
+
+    /**
+     * Natural order of JSON scalars.
+     *
+     * @return comparison result or {@link Integer#MIN_VALUE} if the values are not comparable
+     */
+    private static int compare(@Nullable Object value1, @Nullable Object value2) {
+        if (value1 instanceof Long && value2 instanceof Long) {
+            return Long.compare((Long) value1, (Long) value2);
+        } else if (value1 instanceof Number && value2 instanceof Number) {
+            return toBigDecimal((Number) value1).compareTo(toBigDecimal((Number) value2));
+        } else if (value1 instanceof String && value2 instanceof String) {
+            return Integer.signum(((String) value1).compareTo((String) value2));
+        } else if (value1 instanceof Boolean && value2 instanceof Boolean) {
+            return Boolean.compare((Boolean) value1, (Boolean) value2);
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        return number instanceof BigDecimal ? (BigDecimal) number : BigDecimal.valueOf(number.longValue());
+    }
+
+    private interface ItemVisitor {
+
+        /**
+         * @return mismatch description or null to continue
+         */
+        @Nullable
+        String visit(int index, @Nullable Object value);
+    }
+
+    /**
+     * Scans the document and passes the values to the visitor. The result is the mismatch description or null.
+     */
+    private abstract static class JsonArrayMatcher extends MeasuringMatcher<Object, String> {
+
+        private final ArrayPath arrayPath;
+
+        private JsonArrayMatcher(ArrayPath arrayPath) {
+            this.arrayPath = arrayPath;
+        }
+
+        /**
+         * @return the visitor for a single scan
+         */
+        abstract ItemVisitor newVisitor();
+
+        @Nullable
+        @Override
+        String measure(Object item) throws IOException {
+            JsonPullParser parser;
+            if (item instanceof byte[]) {
+                parser = new JsonPullParser((byte[]) item);
+            } else if (item instanceof InputStream) {
+                parser = new JsonPullParser((InputStream) item);
+            } else if (item instanceof String) {
+                byte[] bytes = ((String) item).getBytes(StandardCharsets.UTF_8);
+                parser = new JsonPullParser(bytes);
+            } else {
+                return "was " + item.getClass().getName() + ", expected byte[], InputStream or String";
+            }
+            try {
+                return scan(parser, arrayPath, newVisitor());
+            } catch (JsonPullParser.MalformedJsonException e) {
+                return "was invalid JSON: " + e.getMessage();
+            }
+        }
+
+        @Override
+        boolean matchesResult(@Nullable String mismatch) {
+            return mismatch == null;
+        }
+
+        @Override
+        void describeResult(@Nullable String mismatch, Description mismatchDescription) {
+            mismatchDescription.appendText(mismatch);
+        }
+    }
+
+    @Nullable
+    private static String scan(JsonPullParser parser, ArrayPath path, ItemVisitor visitor) throws IOException {
+        JsonPullParser.Token token = parser.next();
+        for (int i = 0; i < path.arrayFields.length; i++) {
+            if (token != JsonPullParser.Token.START_OBJECT || !findField(parser, path.arrayFields[i])) {
+                return path.arrayPrefix(i + 1) + " was not found";
+            }
+            token = parser.next();
+        }
+        if (token != JsonPullParser.Token.START_ARRAY) {
+            return path.arrayPrefix(path.arrayFields.length) + " is not an array";
+        }
+
+        int index = 0;
+        while (parser.next() != JsonPullParser.Token.END_ARRAY) {
+            Object value = extract(parser, path.itemFields, 0);
+            if (value == MISSING) {
+                return "an item at index " + index + " has no " + path.itemPath();
+            } else if (value == NOT_SCALAR) {
+                return "an item at index " + index + (path.itemFields.length == 0 ? " is not a scalar"
+                        : " has non-scalar " + path.itemPath());
+            }
+            String mismatch = visitor.visit(index, value);
+            if (mismatch != null) {
+                return mismatch;
+            }
+            index++;
+        }
+        return null;
+    }
+
+    /**
+     * Positions the parser at the value of the field of the current object.
+     *
+     * @return false if the object does not have the field (the object is consumed)
+     */
+    private static boolean findField(JsonPullParser parser, byte[] name) throws IOException {
+        while (parser.next() == JsonPullParser.Token.FIELD_NAME) {
+            if (parser.isFieldName(name)) {
+                return true;
+            }
+            parser.next();
+            parser.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the value of the item by the field path, the item value is consumed.
+     */
+    @Nullable
+    private static Object extract(JsonPullParser parser, byte[][] fields, int fieldIndex) throws IOException {
+        JsonPullParser.Token token = parser.getToken();
+        if (fieldIndex == fields.length) {
+            if (token == JsonPullParser.Token.START_OBJECT || token == JsonPullParser.Token.START_ARRAY) {
+                parser.skipValue();
+                return NOT_SCALAR;
+            }
+            return parser.getValue();
+        }
+        if (token != JsonPullParser.Token.START_OBJECT) {
+            parser.skipValue();
+            return MISSING;
+        }
+        if (!findField(parser, fields[fieldIndex])) {
+            return MISSING;
+        }
+        parser.next();
+        Object value = extract(parser, fields, fieldIndex + 1);
+        // the rest of the object
+        while (parser.next() == JsonPullParser.Token.FIELD_NAME) {
+            parser.next();
+            parser.skipValue();
+        }
+        return value;
+    }
+
+    /**
+     * Parsed path <code>$.a.b[*].c.d</code>: the fields to the array and the fields of the item.
+     */
+    private static final class ArrayPath {
+
+        private final String expression;
+        private final byte[][] arrayFields;
+        private final byte[][] itemFields;
+
+        private ArrayPath(String expression, byte[][] arrayFields, byte[][] itemFields) {
+            this.expression = expression;
+            this.arrayFields = arrayFields;
+            this.itemFields = itemFields;
+        }
+
+        static ArrayPath parse(String expression) {
+            int wildcard = expression.indexOf("[*]");
+            if (!expression.startsWith("$") || wildcard < 0 || expression.indexOf("[*]", wildcard + 1) >= 0) {
+                throw new IllegalArgumentException("Expected path with a single array wildcard like $.items[*].id, "
+                        + "got " + expression);
+            }
+            return new ArrayPath(expression, fields(expression, expression.substring(1, wildcard)),
+                    fields(expression, expression.substring(wildcard + 3)));
+        }
+
+        private static byte[][] fields(String expression, String path) {
+            List<byte[]> fields = new ArrayList<>();
+            if (!path.isEmpty()) {
+                if (!path.startsWith(".")) {
+                    throw new IllegalArgumentException("Invalid path " + expression);
+                }
+                for (String field : path.substring(1).split("\\.", -1)) {
+                    if (field.isEmpty() || field.indexOf('[') >= 0 || field.indexOf(']') >= 0) {
+                        throw new IllegalArgumentException("Invalid path " + expression);
+                    }
+                    fields.add(field.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return fields.toArray(new byte[0][]);
+        }
+
+        String arrayPrefix(int fieldCount) {
+            StringBuilder sb = new StringBuilder("$");
+            for (int i = 0; i < fieldCount; i++) {
+                sb.append('.').append(new String(arrayFields[i], StandardCharsets.UTF_8));
+            }
+            return sb.toString();
+        }
+
+        String itemPath() {
+            StringBuilder sb = new StringBuilder();
+            for (byte[] field : itemFields) {
+                sb.append(sb.length() == 0 ? "" : ".").append(new String(field, StandardCharsets.UTF_8));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return expression;
+        }
+    }
+
+    private JsonMatchers() {
+    }
+}
@@ -0,0 +1,419 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal streaming (pull) tokenizer of UTF-8 JSON. The input is read through a fixed buffer, the skipped values
+ * are scanned without decoding, so the memory does not depend on the size of the document. Only the scalar
+ * values that are requested are materialized: strings as {@link String}, integral numbers as {@link Long} (if they
+ * fit) and other numbers as {@link BigDecimal}.
+ */
+final class JsonPullParser {
+
+    enum Token {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL, END
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Nullable
+    private final InputStream in;
+    private byte[] buffer;
+    private int pos;
+    private int limit;
+    /**
+     * Offset of the buffer start in the input, for diagnostics.
+     */
+    private long bufferOffset;
+
+    /**
+     * Nesting of objects (true) and arrays (false), the size grows with depth only.
+     */
+    private boolean[] containers = new boolean[16];
+    private int depth;
+    /**
+     * Whether a value (or field name in an object) was read in the current container.
+     */
+    private boolean hasElement;
+    /**
+     * Whether the field name was read and its value is expected.
+     */
+    private boolean afterFieldName;
+
+    /**
+     * Whether the tokens are skipped, so the strings and numbers are not materialized.
+     */
+    private boolean skipping;
+
+    private Token token;
+    private byte[] text = new byte[64];
+    private int textLength;
+
+    JsonPullParser(byte[] bytes) {
+        this.in = null;
+        this.buffer = bytes;
+        this.limit = bytes.length;
+    }
+
+    JsonPullParser(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    Token next() throws IOException {
+        int ch = skipWhitespace();
+        if (ch < 0) {
+            if (depth > 0 || token == null) {
+                throw malformed("unexpected end of input");
+            }
+            return token = Token.END;
+        }
+        if (depth == 0 && token != null) {
+            throw malformed("unexpected content after the end of the document");
+        }
+
+        if (ch == '}' || ch == ']') {
+            boolean object = ch == '}';
+            if (depth == 0 || containers[depth - 1] != object || afterFieldName) {
+                throw malformed("unexpected '" + (char) ch + "'");
+            }
+            depth--;
+            hasElement = true;
+            return token = object ? Token.END_OBJECT : Token.END_ARRAY;
+        }
+
+        boolean inObject = depth > 0 && containers[depth - 1];
+        if (hasElement && !afterFieldName) {
+            if (ch != ',') {
+                throw malformed("expected ',' or '" + (inObject ? '}' : ']') + "'");
+            }
+            ch = skipWhitespace();
+        }
+        if (inObject && !afterFieldName) {
+            if (ch != '"') {
+                throw malformed("expected field name");
+            }
+            readString();
+            if (skipWhitespace() != ':') {
+                throw malformed("expected ':'");
+            }
+            afterFieldName = true;
+            hasElement = true;
+            return token = Token.FIELD_NAME;
+        }
+        afterFieldName = false;
+        hasElement = true;
+
+        switch (ch) {
+            case '{':
+            case '[':
+                push(ch == '{');
+                return token = ch == '{' ? Token.START_OBJECT : Token.START_ARRAY;
+            case '"':
+                readString();
+                return token = Token.STRING;
+            case 't':
+                expectLiteral("rue");
+                return token = Token.TRUE;
+            case 'f':
+                expectLiteral("alse");
+                return token = Token.FALSE;
+            case 'n':
+                expectLiteral("ull");
+                return token = Token.NULL;
+            default:
+                if (ch == '-' || ch >= '0' && ch <= '9') {
+                    readNumber(ch);
+                    return token = Token.NUMBER;
+                }
+                throw malformed("unexpected character '" + (char) ch + "'");
+        }
+    }
+
+    /**
+     * Skips the current value: if the current token starts an object or array, all tokens up to the matching end.
+     */
+    void skipValue() throws IOException {
+        if (token == Token.START_OBJECT || token == Token.START_ARRAY) {
+            int targetDepth = depth - 1;
+            skipping = true;
+            try {
+                while (depth > targetDepth) {
+                    next();
+                }
+            } finally {
+                skipping = false;
+            }
+        }
+    }
+
+    /**
+     * @return the scalar value of the current token
+     */
+    @Nullable
+    Object getValue() {
+        switch (token) {
+            case STRING:
+            case FIELD_NAME:
+                return getText();
+            case NUMBER:
+                String number = getText();
+                if (number.length() < 19 && number.indexOf('.') < 0 && number.indexOf('e') < 0
+                        && number.indexOf('E') < 0) {
+                    return Long.parseLong(number);
+                }
+                BigDecimal decimal = new BigDecimal(number);
+                try {
+                    return decimal.longValueExact();
+                } catch (ArithmeticException e) {
+                    return decimal;
+                }
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case NULL:
+                return null;
+            default:
+                throw new IllegalStateException("Not a scalar token " + token);
+        }
+    }
+
+    String getText() {
+        return new String(text, 0, textLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return whether the current field name equals to the name (without decoding)
+     */
+    boolean isFieldName(byte[] name) {
+        if (token != Token.FIELD_NAME || textLength != name.length) {
+            return false;
+        }
+        for (int i = 0; i < textLength; i++) {
+            if (text[i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Token getToken() {
+        return token;
+    }
+
+    private void push(boolean object) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+        }
+        containers[depth++] = object;
+        hasElement = false;
+    }
+
+    /**
+     * Reads the string after the opening quote to the text buffer (decoded escapes).
+     */
+    private void readString() throws IOException {
+        textLength = 0;
+        while (true) {
+            int ch = read();
+            if (ch < 0) {
+                throw malformed("unterminated string");
+            } else if (ch == '"') {
+                return;
+            } else if (ch == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        appendText(escaped);
+                        break;
+                    case 'b':
+                        appendText('\b');
+                        break;
+                    case 'f':
+                        appendText('\f');
+                        break;
+                    case 'n':
+                        appendText('\n');
+                        break;
+                    case 'r':
+                        appendText('\r');
+                        break;
+                    case 't':
+                        appendText('\t');
+                        break;
+                    case 'u':
+                        appendCodeUnit(readHexCodeUnit());
+                        break;
+                    default:
+                        throw malformed("invalid escape sequence");
+                }
+            } else if (ch < 0x20) {
+                throw malformed("control character in string");
+            } else {
+                appendText(ch);
+            }
+        }
+    }
+
+    private int readHexCodeUnit() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw malformed("invalid unicode escape");
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Encodes the escaped UTF-16 code unit as UTF-8, a surrogate pair is expected as two escapes.
+     */
+    private void appendCodeUnit(int codeUnit) throws IOException {
+        int codePoint = codeUnit;
+        if (Character.isHighSurrogate((char) codeUnit)) {
+            if (read() != '\\' || read() != 'u') {
+                throw malformed("unpaired surrogate");
+            }
+            int low = readHexCodeUnit();
+            if (!Character.isLowSurrogate((char) low)) {
+                throw malformed("unpaired surrogate");
+            }
+            codePoint = Character.toCodePoint((char) codeUnit, (char) low);
+        }
+        if (codePoint < 0x80) {
+            appendText(codePoint);
+        } else if (codePoint < 0x800) {
+            appendText(0xc0 | codePoint >> 6);
+            appendText(0x80 | codePoint & 0x3f);
+        } else if (codePoint < 0x10000) {
+            appendText(0xe0 | codePoint >> 12);
+            appendText(0x80 | codePoint >> 6 & 0x3f);
+            appendText(0x80 | codePoint & 0x3f);
+        } else {
+            appendText(0xf0 | codePoint >> 18);
+            appendText(0x80 | codePoint >> 12 & 0x3f);
+            appendText(0x80 | codePoint >> 6 & 0x3f);
+            appendText(0x80 | codePoint & 0x3f);
+        }
+    }
+
+    /**
+     * Reads the number by the JSON grammar: <code>-? (0 | [1-9][0-9]*) (.[0-9]+)? ([eE][+-]?[0-9]+)?</code>.
+     */
+    private void readNumber(int first) throws IOException {
+        textLength = 0;
+        appendText(first);
+        int ch = first;
+        if (ch == '-') {
+            ch = read();
+            if (ch < '0' || ch > '9') {
+                throw malformed("invalid number");
+            }
+            appendText(ch);
+        }
+        if (ch != '0') {
+            readDigits(false);
+        }
+        if (peek() == '.') {
+            appendText(read());
+            readDigits(true);
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            appendText(read());
+            if (peek() == '+' || peek() == '-') {
+                appendText(read());
+            }
+            readDigits(true);
+        }
+    }
+
+    private void readDigits(boolean required) throws IOException {
+        int count = 0;
+        while (peek() >= '0' && peek() <= '9') {
+            appendText(read());
+            count++;
+        }
+        if (required && count == 0) {
+            throw malformed("invalid number");
+        }
+    }
+
+    private void expectLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw malformed("invalid literal");
+            }
+        }
+    }
+
+    private void appendText(int b) {
+        if (skipping) {
+            return;
+        }
+        if (textLength == text.length) {
+            text = Arrays.copyOf(text, textLength * 2);
+        }
+        text[textLength++] = (byte) b;
+    }
+
+    private int skipWhitespace() throws IOException {
+        int ch;
+        do {
+            ch = read();
+        } while (ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t');
+        return ch;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        if (in == null) {
+            return false;
+        }
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private MalformedJsonException malformed(String message) {
+        return new MalformedJsonException(message + " at offset " + (bufferOffset + pos - 1));
+    }
+
+    static final class MalformedJsonException extends IOException {
+
+        MalformedJsonException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.SerializedLambda;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reader of the lambda and method reference descriptions recorded at compile time by {@link LambdaIndexProcessor}.
+ * The lookup is a hash lookup by the implementation method of {@link SerializedLambda}, the classes are not loaded
+ * or parsed. Note: the {@link SerializedLambda} itself is still obtained reflectively (via <code>writeReplace</code>
+ * of the lambda, once per lambda class), as the lambda class does not identify its implementation method.
+ */
+final class LambdaIndex {
+
+    static final String RESOURCE_PREFIX = "META-INF/hamcrest-more-matchers/lambda-index/";
+
+    private static final Properties EMPTY = new Properties();
+
+    /**
+     * Weakly keyed by class loader, so the cached indexes are collected with the test classes.
+     */
+    private static final Map<ClassLoader, ConcurrentMap<String, Properties>> INDEX_CACHE = new WeakHashMap<>();
+
+    /**
+     * Finds the recorded description of the lambda (<code>File.java:line</code>) or method reference
+     * (<code>Class.method</code>).
+     *
+     * @param loader           class loader of the lambda
+     * @param serializedLambda serialized form of the lambda
+     * @return the description or null if not recorded
+     */
+    @Nullable
+    static String findDescription(@Nullable ClassLoader loader, SerializedLambda serializedLambda) {
+        String capturingClass = serializedLambda.getCapturingClass().replace('/', '.');
+        Properties index = getIndexes(loader).computeIfAbsent(capturingClass, k -> loadIndex(loader, k));
+        return index.getProperty(key(serializedLambda.getImplClass(), serializedLambda.getImplMethodName(),
+                serializedLambda.getImplMethodSignature()));
+    }
+
+    /**
+     * @param implClass "/"-separated implementation class
+     * @return the index key of the implementation method
+     */
+    static String key(String implClass, String implMethodName, String implMethodSignature) {
+        return implClass + "." + implMethodName + implMethodSignature;
+    }
+
+    private static ConcurrentMap<String, Properties> getIndexes(@Nullable ClassLoader loader) {
+        synchronized (INDEX_CACHE) {
+            return INDEX_CACHE.computeIfAbsent(loader, k -> new ConcurrentHashMap<>());
+        }
+    }
+
+    private static Properties loadIndex(@Nullable ClassLoader loader, String className) {
+        String resourceName = RESOURCE_PREFIX + className + ".properties";
+        try (InputStream in = loader == null ? ClassLoader.getSystemResourceAsStream(resourceName)
+                : loader.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                return EMPTY;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + resourceName, e);
+        }
+    }
+
+    private LambdaIndex() {
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.seregamorph.hamcrest;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import javassist.bytecode.BootstrapMethodsAttribute;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Optional compile-time step: records the description of each lambda and method reference to a generated resource,
+ * which is consulted first by lambda resolution of {@link MoreMatchers#where(ThrowingFunction, org.hamcrest.Matcher)}.
+ * This way the lambda is described without parsing the class file with javassist at runtime (e.g. when class files
+ * are not readable). The processor is not registered as a service, it should be enabled explicitly, e.g. via
+ * <code>annotationProcessors</code> of maven-compiler-plugin:
+ * <pre>
+ * &lt;annotationProcessor&gt;com.github.seregamorph.hamcrest.LambdaIndexProcessor&lt;/annotationProcessor&gt;
+ * </pre>
+ * The synthetic lambda method names (<code>lambda$method$N</code>, with a hash for serializable lambdas) are only
+ * assigned by javac when the class is generated, so the index is built from the generated class file: each
+ * {@link java.lang.invoke.LambdaMetafactory} call site is recorded by its implementation method. The resource
+ * <code>META-INF/hamcrest-more-matchers/lambda-index/{binary class name}.properties</code> of the capturing class
+ * maps <code>{implClass}.{implMethodName}{implMethodSignature}</code> (as in {@link java.lang.invoke.SerializedLambda})
+ * to <code>File.java:line</code> for lambdas or <code>Class.method</code> for method references. Requires javac
+ * and javassist on the annotation processor path.
+ *
+ * @author seregamorph
+ */
+@SupportedAnnotationTypes("*")
+public class LambdaIndexProcessor extends AbstractProcessor {
+
+    private static final String LAMBDA_METAFACTORY = "java.lang.invoke.LambdaMetafactory";
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        try {
+            JavacTask.instance(processingEnv).addTaskListener(new TaskListener() {
+                @Override
+                public void started(TaskEvent event) {
+                }
+
+                @Override
+                public void finished(TaskEvent event) {
+                    if (event.getKind() == TaskEvent.Kind.GENERATE && event.getTypeElement() != null) {
+                        indexClass(event.getTypeElement());
+                    }
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            // not javac
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "LambdaIndexProcessor is disabled, compiler task API is not available");
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // the index is written when the classes are generated, annotations are not claimed
+        return false;
+    }
+
+    private void indexClass(TypeElement type) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        try {
+            Map<String, String> descriptions = readDescriptions(binaryName);
+            if (!descriptions.isEmpty()) {
+                writeIndex(type, binaryName, descriptions);
+            }
+        } catch (IOException | RuntimeException | NoClassDefFoundError e) {
+            // NoClassDefFoundError (missing javassist dependency)
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Failed to write lambda index of " + binaryName + ": " + e, type);
+        }
+    }
+
+    /**
+     * @return descriptions of the lambdas and method references by the index key
+     */
+    private Map<String, String> readDescriptions(String binaryName) throws IOException {
+        FileObject classFileObject = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                binaryName.replace('.', '/') + ".class");
+        ClassFile classFile;
+        try (InputStream in = classFileObject.openInputStream()) {
+            classFile = new ClassFile(new DataInputStream(in));
+        }
+        Map<String, String> descriptions = new LinkedHashMap<>();
+        BootstrapMethodsAttribute bootstrapMethods =
+                (BootstrapMethodsAttribute) classFile.getAttribute(BootstrapMethodsAttribute.tag);
+        if (bootstrapMethods == null) {
+            return descriptions;
+        }
+        ConstPool constPool = classFile.getConstPool();
+        for (BootstrapMethodsAttribute.BootstrapMethod bootstrapMethod : bootstrapMethods.getMethods()) {
+            int bootstrapMember = constPool.getMethodHandleIndex(bootstrapMethod.methodRef);
+            if (!LAMBDA_METAFACTORY.equals(constPool.getClassInfo(constPool.getMemberClass(bootstrapMember)))
+                    || bootstrapMethod.arguments.length < 2) {
+                // e.g. string concatenation
+                continue;
+            }
+            // (samMethodType, implMethod, instantiatedMethodType, ...)
+            int implMethodHandle = bootstrapMethod.arguments[1];
+            int implMember = constPool.getMethodHandleIndex(implMethodHandle);
+            int nameAndType = constPool.getMemberNameAndType(implMember);
+            String implClass = constPool.getClassInfo(constPool.getMemberClass(implMember)).replace('.', '/');
+            String implMethodName = constPool.getUtf8Info(constPool.getNameAndTypeName(nameAndType));
+            String implMethodSignature = constPool.getUtf8Info(constPool.getNameAndTypeDescriptor(nameAndType));
+
+            String description;
+            if (implMethodName.startsWith("lambda$")) {
+                MethodInfo method = classFile.getMethod(implMethodName);
+                description = method == null ? null : classFile.getSourceFile() + ":" + method.getLineNumber(0);
+            } else {
+                description = MethodUtils.getSignatureShortReference(implClass, implMethodName,
+                        constPool.getMethodHandleKind(implMethodHandle), implMethodSignature);
+            }
+            if (description != null) {
+                descriptions.put(LambdaIndex.key(implClass, implMethodName, implMethodSignature), description);
+            }
+        }
+        return descriptions;
+    }
+
+    private void writeIndex(TypeElement type, String binaryName, Map<String, String> descriptions)
+            throws IOException {
+        Properties index = new Properties();
+        index.putAll(descriptions);
+        // escaped for Properties.load(InputStream) of LambdaIndex: ISO-8859-1 and Unicode escapes, escaped separators
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        index.store(content, null);
+        byte[] bytes = content.toByteArray();
+        // the first line is the timestamp comment, skipped to keep the build reproducible
+        int start = 0;
+        while (start < bytes.length && bytes[start] != '\n') {
+            start++;
+        }
+        start++;
+        FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                LambdaIndex.RESOURCE_PREFIX + binaryName + ".properties", type);
+        try (OutputStream out = resource.openOutputStream()) {
+            out.write(bytes, start, bytes.length - start);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.SerializedLambda;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Optional persistent cache of resolved lambda descriptions shared between test JVMs (e.g. surefire forks), so
+ * only the first JVM pays the cost of reflection and class file parsing. Enabled via
+ * <code>-Dhamcrest.more.lambda.cache.dir=target/hamcrest-lambda-cache</code>.
+ * <p>
+ * The key is the hash of the class file content of the lambda implementation class and of the implementation
+ * method, so the entries of recompiled classes are not reused. Each entry is a separate file, which is written
+ * to a temporary file and atomically moved, so concurrent JVMs never read a partially written entry.
+ * The cache is best effort: I/O errors are treated as a cache miss.
+ */
+final class LambdaReferenceCache {
+
+    static final String DIRECTORY_PROPERTY = "hamcrest.more.lambda.cache.dir";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Nullable
+    private static final LambdaReferenceCache GLOBAL = createGlobal();
+
+    private final Path directory;
+
+    LambdaReferenceCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return global cache or null if it is not enabled
+     */
+    @Nullable
+    static LambdaReferenceCache getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param key entry key, see {@link #key(ClassLoader, SerializedLambda)}
+     */
+    @Nullable
+    String get(String key) {
+        try {
+            return new String(Files.readAllBytes(directory.resolve(key)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // not cached yet
+            return null;
+        }
+    }
+
+    /**
+     * @param key entry key, see {@link #key(ClassLoader, SerializedLambda)}
+     */
+    void put(String key, String shortReference) {
+        Path file = directory.resolve(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, key, ".tmp");
+            Files.write(tempFile, shortReference.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // the entry is resolved again next time
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads and hashes the class file, so the key should be computed once for {@link #get} and {@link #put}.
+     *
+     * @return hex SHA-256 of the class file and the implementation method or null if the class file is not found
+     */
+    @Nullable
+    static String key(@Nullable ClassLoader loader, SerializedLambda serializedLambda) {
+        byte[] classFile = readClassFile(loader, serializedLambda.getImplClass());
+        if (classFile == null) {
+            return null;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(classFile);
+        String implMethod = serializedLambda.getImplClass() + "." + serializedLambda.getImplMethodName()
+                + serializedLambda.getImplMethodSignature() + "#" + serializedLambda.getImplMethodKind();
+        digest.update(implMethod.getBytes(StandardCharsets.UTF_8));
+        byte[] hash = digest.digest();
+        char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX_DIGITS[hash[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    @Nullable
+    private static byte[] readClassFile(@Nullable ClassLoader loader, String implClass) {
+        String resourceName = implClass + ".class";
+        try (InputStream in = loader == null ? ClassLoader.getSystemResourceAsStream(resourceName)
+                : loader.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                return null;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static LambdaReferenceCache createGlobal() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return directory == null || directory.isEmpty() ? null : new LambdaReferenceCache(Paths.get(directory));
+    }
+}
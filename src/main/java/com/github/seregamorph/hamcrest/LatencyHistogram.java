@@ -0,0 +1,116 @@
+package com.github.seregamorph.hamcrest;
+
+import java.util.Locale;
+
+/**
+ * Histogram of latencies in nanoseconds with fixed memory footprint (HDR-style log-linear buckets): values
+ * below 256 are recorded exactly, larger values with 128 sub-buckets per power of two, i.e. with relative error
+ * below 1%. Recording does not allocate. Not thread-safe.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+    private static final double[] REPORTED_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+
+    void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts[bucketIndex(value)]++;
+        totalCount++;
+        totalNanos += value;
+        minNanos = Math.min(minNanos, value);
+        maxNanos = Math.max(maxNanos, value);
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    long getMeanNanos() {
+        return totalCount == 0 ? 0L : totalNanos / totalCount;
+    }
+
+    /**
+     * @param percentile percentile in range (0, 100]
+     * @return the highest value of the bucket of the percentile (capped by the max recorded value)
+     */
+    long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+        long targetCount = Math.max(1L, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long cumulativeCount = 0;
+        for (int index = 0; index < counts.length; index++) {
+            cumulativeCount += counts[index];
+            if (cumulativeCount >= targetCount) {
+                return Math.min(highestValue(index), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Renders the distribution as a table, one percentile per line.
+     */
+    String toTable() {
+        StringBuilder sb = new StringBuilder();
+        appendRow(sb, "min", totalCount == 0 ? 0L : minNanos);
+        for (double percentile : REPORTED_PERCENTILES) {
+            appendRow(sb, "p" + percentileName(percentile), getValueAtPercentile(percentile));
+        }
+        appendRow(sb, "max", maxNanos);
+        appendRow(sb, "mean", getMeanNanos());
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, String name, long nanos) {
+        sb.append(String.format(Locale.ROOT, "%n    %-7s %10s", name, formatNanos(nanos)));
+    }
+
+    static String percentileName(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000L) {
+            return nanos + "ns";
+        } else if (nanos < 1_000_000L) {
+            return String.format(Locale.ROOT, "%.2fus", nanos / 1e3);
+        } else if (nanos < 1_000_000_000L) {
+            return String.format(Locale.ROOT, "%.2fms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.3fs", nanos / 1e9);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
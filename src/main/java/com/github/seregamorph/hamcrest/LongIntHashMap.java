@@ -0,0 +1,102 @@
+package com.github.seregamorph.hamcrest;
+
+/**
+ * Open-addressing (linear probing) map of primitive long keys to non-negative int values (e.g. the index of the
+ * first occurrence). Takes 12 bytes per slot instead of a boxed {@link Long} and {@link Integer} plus
+ * a {@link java.util.HashMap} entry per element.
+ */
+final class LongIntHashMap {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * 0 is the marker of an empty slot, so the zero key is tracked separately.
+     */
+    private long[] keys;
+    private int[] values;
+    private int zeroValue = -1;
+    private int size;
+    private int resizeThreshold;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param value non-negative value
+     * @return the value of the present key or -1 if the key was added
+     */
+    int putIfAbsent(long key, int value) {
+        if (key == 0L) {
+            int existing = zeroValue;
+            if (existing < 0) {
+                zeroValue = value;
+                size++;
+            }
+            return existing;
+        }
+        int mask = keys.length - 1;
+        for (int index = mix(key) & mask; ; index = (index + 1) & mask) {
+            long slot = keys[index];
+            if (slot == 0L) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeThreshold) {
+                    rehash(keys.length << 1);
+                }
+                return -1;
+            } else if (slot == key) {
+                return values[index];
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("LongIntHashMap capacity exceeded: " + size);
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0L) {
+                int index = mix(key) & mask;
+                while (keys[index] != 0L) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        // load factor 0.75
+        resizeThreshold = capacity - (capacity >>> 2);
+    }
+
+    static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < MAX_CAPACITY && capacity - (capacity >>> 2) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Murmur3 64-bit finalizer, sequential keys are spread across the table.
+     */
+    static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,315 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of the matchers produced by this library. Records invocation count, success/failure
+ * count, cumulative time and (where supported by JVM) thread-allocated bytes per factory method and
+ * per call site of the extracting lambda (e.g. of {@link MoreMatchers#where(ThrowingFunction, Matcher)}).
+ * <p>
+ * Enabled via <code>-Dhamcrest.more.metrics=true</code>, the metrics are written at JVM shutdown to the file
+ * <code>-Dhamcrest.more.metrics.file</code> (CSV, or JSON if the file name ends with ".json"),
+ * by default <code>target/hamcrest-matcher-metrics-{pid}.csv</code>. When disabled, the matchers are not wrapped
+ * and there is no overhead.
+ *
+ * @author seregamorph
+ */
+public class MatcherMetrics {
+
+    public static final String ENABLED_PROPERTY = "hamcrest.more.metrics";
+    public static final String FILE_PROPERTY = "hamcrest.more.metrics.file";
+
+    @Nullable
+    private static final MatcherMetrics GLOBAL = Boolean.getBoolean(ENABLED_PROPERTY) ? createGlobal() : null;
+
+    private final ConcurrentMap<Key, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @return global metrics registry or null if metrics are not enabled
+     */
+    @Nullable
+    public static MatcherMetrics getGlobal() {
+        return GLOBAL;
+    }
+
+    static <T> Matcher<T> instrumented(String factory, Matcher<T> matcher) {
+        return instrumented(factory, null, matcher);
+    }
+
+    static <T> Matcher<T> instrumented(String factory, @Nullable Serializable callSite, Matcher<T> matcher) {
+        return GLOBAL == null ? matcher : GLOBAL.instrument(factory, callSite, matcher);
+    }
+
+    /**
+     * Wraps the matcher to record its metrics in this registry.
+     *
+     * @param factory  name of the factory method
+     * @param callSite extracting lambda, the metrics are recorded per lambda class (call site). May be null
+     * @param matcher  matcher to instrument
+     */
+    public <T> Matcher<T> instrument(String factory, @Nullable Serializable callSite, Matcher<T> matcher) {
+        // the registry lives as long as the JVM, so it keeps only the names, not the lambda or its class
+        // (that would pin the test class loader)
+        Key key = new Key(factory, callSite == null ? "" : callSite.getClass().getName());
+        Counters matcherCounters = counters.computeIfAbsent(key, k -> new Counters(describeCallSite(callSite)));
+        return new InstrumentedMatcher<>(matcher, matcherCounters);
+    }
+
+    public void reset() {
+        counters.clear();
+    }
+
+    /**
+     * Writes the metrics as CSV, sorted by cumulative time.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("factory,callSite,invocations,successes,failures,totalNanos,avgNanos,allocatedBytes\n");
+        for (Row row : rows()) {
+            out.append(csvValue(row.factory)).append(',')
+                    .append(csvValue(row.callSite)).append(',')
+                    .append(String.valueOf(row.invocations)).append(',')
+                    .append(String.valueOf(row.successes)).append(',')
+                    .append(String.valueOf(row.failures)).append(',')
+                    .append(String.valueOf(row.totalNanos)).append(',')
+                    .append(String.valueOf(row.averageNanos())).append(',')
+                    .append(String.valueOf(row.allocatedBytes)).append('\n');
+        }
+    }
+
+    /**
+     * Writes the metrics as JSON array, sorted by cumulative time.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("[");
+        String separator = "\n";
+        for (Row row : rows()) {
+            out.append(separator)
+                    .append("  {\"factory\": ").append(jsonValue(row.factory))
+                    .append(", \"callSite\": ").append(jsonValue(row.callSite))
+                    .append(", \"invocations\": ").append(String.valueOf(row.invocations))
+                    .append(", \"successes\": ").append(String.valueOf(row.successes))
+                    .append(", \"failures\": ").append(String.valueOf(row.failures))
+                    .append(", \"totalNanos\": ").append(String.valueOf(row.totalNanos))
+                    .append(", \"avgNanos\": ").append(String.valueOf(row.averageNanos()))
+                    .append(", \"allocatedBytes\": ").append(String.valueOf(row.allocatedBytes))
+                    .append("}");
+            separator = ",\n";
+        }
+        out.append("\n]\n");
+    }
+
+    List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        for (Map.Entry<Key, Counters> entry : counters.entrySet()) {
+            rows.add(new Row(entry.getKey().factory, entry.getValue()));
+        }
+        rows.sort(Comparator.comparingLong((Row row) -> row.totalNanos).reversed());
+        return rows;
+    }
+
+    /**
+     * Resolved once per call site (lambda class), the resolution is cached by {@link MethodUtils}.
+     */
+    private static String describeCallSite(@Nullable Serializable callSite) {
+        String shortReference = callSite == null ? null : MethodUtils.getLambdaShortReference(callSite);
+        return shortReference == null ? "" : shortReference;
+    }
+
+    private static MatcherMetrics createGlobal() {
+        MatcherMetrics metrics = new MatcherMetrics();
+        String fileName = System.getProperty(FILE_PROPERTY);
+        Path file = Paths.get(fileName == null ? "target/hamcrest-matcher-metrics-" + pid() + ".csv" : fileName);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> metrics.dump(file), "hamcrest-matcher-metrics"));
+        return metrics;
+    }
+
+    private void dump(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                if (file.toString().endsWith(".json")) {
+                    writeJson(writer);
+                } else {
+                    writeCsv(writer);
+                }
+            }
+        } catch (IOException e) {
+            // an exception is not reported from the shutdown hook thread
+            System.err.println("Failed to write matcher metrics to " + file + ": " + e);
+        }
+    }
+
+    private static String pid() {
+        // "pid@hostname"
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        int index = name.indexOf('@');
+        return index > 0 ? name.substring(0, index) : name;
+    }
+
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonValue(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                sb.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                sb.append(String.format("\\u%04x", (int) ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static final class Key {
+
+        private final String factory;
+        /**
+         * Name of the lambda class or empty string.
+         */
+        private final String callSiteClassName;
+
+        private Key(String factory, String callSiteClassName) {
+            this.factory = factory;
+            this.callSiteClassName = callSiteClassName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return factory.equals(key.factory) && callSiteClassName.equals(key.callSiteClassName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(factory, callSiteClassName);
+        }
+    }
+
+    /**
+     * LongAdder is striped, so the matchers evaluated concurrently (e.g. in parallel everyItem) do not contend.
+     */
+    private static final class Counters {
+
+        /**
+         * Description of the call site lambda or empty string.
+         */
+        private final String callSite;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private Counters(String callSite) {
+            this.callSite = callSite;
+        }
+
+        void record(boolean success, long elapsedNanos, long allocated) {
+            invocations.increment();
+            (success ? successes : failures).increment();
+            nanos.add(elapsedNanos);
+            if (allocated > 0) {
+                allocatedBytes.add(allocated);
+            }
+        }
+    }
+
+    static final class Row {
+
+        final String factory;
+        final String callSite;
+        final long invocations;
+        final long successes;
+        final long failures;
+        final long totalNanos;
+        final long allocatedBytes;
+
+        private Row(String factory, Counters counters) {
+            this.factory = factory;
+            this.callSite = counters.callSite;
+            this.invocations = counters.invocations.sum();
+            this.successes = counters.successes.sum();
+            this.failures = counters.failures.sum();
+            this.totalNanos = counters.nanos.sum();
+            this.allocatedBytes = ThreadAllocation.isSupported() ? counters.allocatedBytes.sum() : -1L;
+        }
+
+        long averageNanos() {
+            return invocations == 0 ? 0 : totalNanos / invocations;
+        }
+    }
+
+    private static final class InstrumentedMatcher<T> extends BaseMatcher<T> {
+
+        private final Matcher<T> delegate;
+        private final Counters counters;
+
+        private InstrumentedMatcher(Matcher<T> delegate, Counters counters) {
+            this.delegate = delegate;
+            this.counters = counters;
+        }
+
+        @Override
+        public boolean matches(Object actual) {
+            long allocatedBefore = ThreadAllocation.currentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                success = delegate.matches(actual);
+                return success;
+            } finally {
+                long elapsedNanos = System.nanoTime() - start;
+                long allocated = allocatedBefore < 0 ? 0
+                        : ThreadAllocation.currentThreadAllocatedBytes() - allocatedBefore;
+                counters.record(success, elapsedNanos, allocated);
+            }
+        }
+
+        @Override
+        public void describeMismatch(Object item, Description mismatchDescription) {
+            delegate.describeMismatch(item, mismatchDescription);
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            delegate.describeTo(description);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+
+/**
+ * Matcher that measures (executes) the item and matches the result. Keeps the result of the last failed measurement
+ * for {@link #describeMismatchSafely}, so the mismatch is described by the measurement that failed and the code
+ * is not executed again. The item is referenced weakly and the result is released once the mismatch is described,
+ * so the matcher (e.g. a constant in a test class) does not keep the matched object graph or response body reachable.
+ */
+abstract class MeasuringMatcher<T, R> extends TypeSafeMatcher<T> {
+
+    @Nullable
+    private WeakReference<T> lastItem;
+    @Nullable
+    private R lastResult;
+
+    abstract R measure(T item) throws Exception;
+
+    abstract boolean matchesResult(R result);
+
+    abstract void describeResult(R result, Description mismatchDescription);
+
+    @Override
+    protected boolean matchesSafely(T item) {
+        R result = measure0(item);
+        boolean matches = matchesResult(result);
+        synchronized (this) {
+            if (matches) {
+                lastItem = null;
+                lastResult = null;
+            } else {
+                lastItem = new WeakReference<>(item);
+                lastResult = result;
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    protected void describeMismatchSafely(T item, Description mismatchDescription) {
+        R result = null;
+        synchronized (this) {
+            if (lastItem != null && lastItem.get() == item) {
+                result = lastResult;
+                lastItem = null;
+                lastResult = null;
+            }
+        }
+        describeResult(result == null ? measure0(item) : result, mismatchDescription);
+    }
+
+    private R measure0(T item) {
+        try {
+            return measure(item);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                // the flag is cleared by the thrown exception
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Matchers to assert the memory footprint of objects. The object graph is walked reflectively from the matched
+ * object and the shallow sizes of reachable objects are estimated by the layout of the running JVM (object header,
+ * compressed oops, alignment), so the numbers are close to heap dump analyzers, but not exact. Shared JVM objects
+ * (classes, class loaders, threads and enum constants) are never counted.
+ *
+ * @author seregamorph
+ */
+public class MemoryMatchers {
+
+    /**
+     * Matcher that expects that the object retains at most <code>bytes</code>, i.e. the total size of the objects
+     * reachable from it. E.g.
+     * <pre>
+     * assertThat(index, retainsAtMost(64 * 1024 * 1024));
+     * </pre>
+     *
+     * @param bytes max retained size in bytes
+     */
+    public static <T> Matcher<T> retainsAtMost(long bytes) {
+        return retainsAtMost(bytes, obj -> false);
+    }
+
+    /**
+     * Matcher that expects that the object retains at most <code>bytes</code>, ignoring the objects matching
+     * <code>excluded</code> (and the objects reachable only through them), e.g. shared caches, singletons or
+     * interned strings that are not owned by the object:
+     * <pre>
+     * assertThat(index, retainsAtMost(64 * 1024 * 1024, obj -&gt; obj == Dictionary.DEFAULT));
+     * </pre>
+     *
+     * @param bytes    max retained size in bytes
+     * @param excluded predicate of the objects to exclude, it's not applied to the matched object itself
+     */
+    public static <T> Matcher<T> retainsAtMost(long bytes, Predicate<Object> excluded) {
+        Predicate<Object> skipped = ((Predicate<Object>) MemoryMatchers::isShared).or(excluded);
+        return MatcherMetrics.instrumented("MemoryMatchers.retainsAtMost", new MeasuringMatcher<T, RetainedSize>() {
+            @Override
+            RetainedSize measure(T item) {
+                return RetainedSize.measure(item, skipped);
+            }
+
+            @Override
+            boolean matchesResult(RetainedSize retainedSize) {
+                return retainedSize.getTotalBytes() <= bytes;
+            }
+
+            @Override
+            void describeResult(RetainedSize retainedSize, Description mismatchDescription) {
+                mismatchDescription.appendText(String.format(Locale.ROOT, "retained %,d bytes in %,d objects",
+                        retainedSize.getTotalBytes(), retainedSize.getObjectCount()));
+                if (retainedSize.getInaccessibleCount() > 0) {
+                    mismatchDescription.appendText(String.format(Locale.ROOT,
+                            " (%,d inaccessible references not traversed, e.g. %s)",
+                            retainedSize.getInaccessibleCount(), retainedSize.getInaccessibleField()));
+                }
+                mismatchDescription.appendText(String.format(Locale.ROOT,
+                        ", object layout: %d bytes header, %d bytes references, %d bytes alignment, "
+                                + "shallow bytes by class:", ObjectLayout.getHeaderSize(),
+                        ObjectLayout.getReferenceSize(), ObjectLayout.getObjectAlignment()))
+                        .appendText(retainedSize.toTable());
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText(String.format(Locale.ROOT, "retains at most %,d bytes", bytes));
+            }
+        });
+    }
+
+    private static boolean isShared(Object obj) {
+        return obj instanceof Class
+                || obj instanceof ClassLoader
+                || obj instanceof Thread
+                || obj instanceof Enum;
+    }
+
+    private MemoryMatchers() {
+    }
+}
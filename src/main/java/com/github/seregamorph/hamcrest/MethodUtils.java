@@ -3,20 +3,185 @@ package com.github.seregamorph.hamcrest;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtMethod;
+import javassist.LoaderClassPath;
 
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 class MethodUtils {
 
+    /**
+     * All caches are weakly keyed by the class (loader) and the values do not reference the keys, so the test
+     * classes are collected with their class loader (e.g. in reused surefire forks or Gradle daemons).
+     */
+    private static final Map<ClassLoader, ClassPool> CLASS_POOLS = new WeakHashMap<>();
+    private static final Map<Class<?>, String> LAMBDA_REFERENCES = new WeakHashMap<>();
+
+    /**
+     * Resolves lambda method or constructor reference to the short description. The description is cached
+     * per lambda class (i.e. per call site). The {@link SerializedLambda} is obtained reflectively, then
+     * the compile-time {@link LambdaIndex} is consulted before the class file of the lambda is parsed.
+     *
+     * @return short reference or null if the lambda cannot be resolved
+     */
+    @Nullable
+    static String getLambdaShortReference(Serializable lambda) {
+        Class<?> lambdaClass = lambda.getClass();
+        synchronized (LAMBDA_REFERENCES) {
+            String shortReference = LAMBDA_REFERENCES.get(lambdaClass);
+            if (shortReference != null) {
+                return shortReference;
+            }
+        }
+        String shortReference = resolveLambdaShortReference(lambda);
+        if (shortReference != null) {
+            synchronized (LAMBDA_REFERENCES) {
+                LAMBDA_REFERENCES.put(lambdaClass, shortReference);
+            }
+        }
+        return shortReference;
+    }
+
+    @Nullable
+    private static String resolveLambdaShortReference(Serializable lambda) {
+        SerializedLambda serializedLambda = TestLambdaUtils.getSerializedLambda(lambda);
+        if (serializedLambda == null) {
+            return null;
+        }
+        ClassLoader loader = lambda.getClass().getClassLoader();
+        // recorded at compile time by LambdaIndexProcessor (if enabled), no class loading or parsing
+        String description = LambdaIndex.findDescription(loader, serializedLambda);
+        if (description != null) {
+            return description;
+        }
+        LambdaReferenceCache persistentCache = LambdaReferenceCache.getGlobal();
+        // the key hashes the class file, so it is computed on index miss only, once for both lookup and store
+        String cacheKey = persistentCache == null ? null : LambdaReferenceCache.key(loader, serializedLambda);
+        if (cacheKey != null) {
+            String shortReference = persistentCache.get(cacheKey);
+            if (shortReference != null) {
+                return shortReference;
+            }
+        }
+        String shortReference = resolveLambdaShortReference(lambda, serializedLambda);
+        if (shortReference != null && cacheKey != null) {
+            persistentCache.put(cacheKey, shortReference);
+        }
+        return shortReference;
+    }
+
+    @Nullable
+    private static String resolveLambdaShortReference(Serializable lambda, SerializedLambda serializedLambda) {
+        if (!TestLambdaUtils.NATIVE_IMAGE) {
+            Method methodReference = TestLambdaUtils.unreferenceLambdaMethod(lambda);
+            if (methodReference != null) {
+                return getMethodShortReference(methodReference);
+            }
+            Constructor<?> constructorReference = TestLambdaUtils.unreferenceLambdaConstructor(lambda);
+            if (constructorReference != null) {
+                return getConstructorShortReference(constructorReference);
+            }
+        }
+        return getSignatureShortReference(serializedLambda);
+    }
+
+    /**
+     * Describes method or constructor reference by the names of {@link SerializedLambda} only, without loading
+     * the classes (e.g. in native image).
+     *
+     * @return short reference or null for synthetic lambda method
+     */
+    @Nullable
+    static String getSignatureShortReference(SerializedLambda serializedLambda) {
+        return getSignatureShortReference(serializedLambda.getImplClass(), serializedLambda.getImplMethodName(),
+                serializedLambda.getImplMethodKind(), serializedLambda.getImplMethodSignature());
+    }
+
+    /**
+     * @param implClass      "/"-separated implementation class
+     * @param implMethodKind {@link MethodHandleInfo} reference kind
+     * @return short reference or null for synthetic lambda method
+     */
+    @Nullable
+    static String getSignatureShortReference(String implClass, String implMethodName, int implMethodKind,
+                                             String signature) {
+        if (implMethodName.startsWith("lambda$")) {
+            return null;
+        }
+        String className = simpleClassName(implClass);
+        if (implMethodKind != MethodHandleInfo.REF_newInvokeSpecial) {
+            return className + "." + implMethodName;
+        }
+        List<String> parameterTypeNames = new ArrayList<>();
+        int index = 1;
+        while (index < signature.length() && signature.charAt(index) != ')') {
+            int dimensions = 0;
+            while (signature.charAt(index) == '[') {
+                dimensions++;
+                index++;
+            }
+            String typeName;
+            if (signature.charAt(index) == 'L') {
+                int end = signature.indexOf(';', index);
+                typeName = simpleClassName(signature.substring(index + 1, end));
+                index = end + 1;
+            } else {
+                typeName = primitiveTypeName(signature.charAt(index));
+                index++;
+            }
+            StringBuilder sb = new StringBuilder(typeName);
+            for (int i = 0; i < dimensions; i++) {
+                sb.append("[]");
+            }
+            parameterTypeNames.add(sb.toString());
+        }
+        return className + "(" + String.join(", ", parameterTypeNames) + ")";
+    }
+
+    private static String simpleClassName(String internalName) {
+        int index = Math.max(internalName.lastIndexOf('/'), internalName.lastIndexOf('$'));
+        return internalName.substring(index + 1);
+    }
+
+    private static String primitiveTypeName(char descriptor) {
+        switch (descriptor) {
+            case 'Z':
+                return "boolean";
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'S':
+                return "short";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'F':
+                return "float";
+            case 'D':
+                return "double";
+            default:
+                throw new IllegalStateException("Wrong type descriptor " + descriptor);
+        }
+    }
+
     static String getMethodShortReference(Method method) {
         try {
             if (method.isSynthetic()) {
                 // probably it is classic lambda
-                ClassPool pool = ClassPool.getDefault();
-                CtClass ctClass = pool.get(method.getDeclaringClass().getCanonicalName());
+                Class<?> declaringClass = method.getDeclaringClass();
+                CtClass ctClass = getClassPool(declaringClass.getClassLoader()).get(declaringClass.getName());
                 CtMethod ctMethod = ctClass.getDeclaredMethod(method.getName());
                 int lineNumber = ctMethod.getMethodInfo().getLineNumber(0);
                 return ctClass.getClassFile().getSourceFile() + ":" + lineNumber;
@@ -28,6 +193,25 @@ class MethodUtils {
         return method.getDeclaringClass().getSimpleName() + "." + method.getName();
     }
 
+    /**
+     * The class files are read via the class loader of the lambda, the pool references the loader weakly.
+     */
+    private static ClassPool getClassPool(@Nullable ClassLoader loader) {
+        synchronized (CLASS_POOLS) {
+            ClassPool pool = CLASS_POOLS.get(loader);
+            if (pool == null) {
+                pool = new ClassPool(false);
+                if (loader == null) {
+                    pool.appendSystemPath();
+                } else {
+                    pool.appendClassPath(new LoaderClassPath(loader));
+                }
+                CLASS_POOLS.put(loader, pool);
+            }
+            return pool;
+        }
+    }
+
     static String getConstructorShortReference(Constructor<?> constructor) {
         String parameterTypeNames = Stream.of(constructor.getParameterTypes())
                 .map(Class::getSimpleName)
@@ -2,10 +2,14 @@ package com.github.seregamorph.hamcrest;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.hamcrest.TypeSafeMatcher;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
 /**
@@ -23,7 +27,7 @@ public class MoreMatchers {
      * @param matcher   matcher for extracted value
      */
     public static <U, V> Matcher<U> where(ThrowingFunction<U, V> extractor, Matcher<V> matcher) {
-        return new TypeSafeMatcher<U>() {
+        return MatcherMetrics.instrumented("MoreMatchers.where", extractor, new TypeSafeMatcher<U>() {
             @Override
             protected boolean matchesSafely(U item) {
                 if (item == null) {
@@ -54,21 +58,88 @@ public class MoreMatchers {
                 description.appendText("Object that matches ")
                         .appendDescriptionOf(matcher);
 
-                Method methodReference = TestLambdaUtils.unreferenceLambdaMethod(extractor);
-                if (methodReference != null) {
-                    String shortDescription = MethodUtils.getMethodShortReference(methodReference);
-                    description.appendText(" after call " + shortDescription);
+                String shortReference = MethodUtils.getLambdaShortReference(extractor);
+                description.appendText(shortReference == null ? " after being extracted"
+                        : " after call " + shortReference);
+            }
+        });
+    }
+
+    /**
+     * Matcher for a value extracted by the property path like <code>address.city</code> or
+     * <code>items[0].sku</code>, a faster alternative of nested <code>where</code> calls and
+     * {@link org.hamcrest.Matchers#hasProperty(String, Matcher)}. The path is parsed once, the getters
+     * (<code>getX()</code>, <code>isX()</code>, <code>x()</code> or public field) are resolved once per runtime class
+     * and cached as method handles. If an intermediate value is null or the index is out of bounds, the property
+     * is reported as missing.
+     *
+     * @param propertyPath dot-separated property names with optional list or array indexes
+     * @param matcher      matcher for extracted value
+     * @throws IllegalArgumentException if the property path is malformed
+     */
+    public static <U> Matcher<U> where(String propertyPath, Matcher<?> matcher) {
+        PropertyPath path = PropertyPath.parse(propertyPath);
+        return MatcherMetrics.instrumented("MoreMatchers.where", new TypeSafeMatcher<U>() {
+            @Override
+            protected boolean matchesSafely(U item) {
+                Object target = extract(item);
+                return !(target instanceof PropertyPath.Unresolved) && matcher.matches(target);
+            }
+
+            @Override
+            protected void describeMismatchSafely(U item, Description mismatchDescription) {
+                Object target = extract(item);
+                if (target instanceof PropertyPath.Unresolved) {
+                    mismatchDescription.appendText(((PropertyPath.Unresolved) target).describe(path));
                 } else {
-                    Constructor<?> constructorReference = TestLambdaUtils.unreferenceLambdaConstructor(extractor);
-                    if (constructorReference != null) {
-                        String shortDescription = MethodUtils.getConstructorShortReference(constructorReference);
-                        description.appendText(" after call " + shortDescription);
-                    } else {
-                        description.appendText(" after being extracted");
-                    }
+                    matcher.describeMismatch(target, mismatchDescription);
                 }
             }
-        };
+
+            private Object extract(U item) {
+                try {
+                    return path.extract(item);
+                } catch (Throwable e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("Object that matches ")
+                        .appendDescriptionOf(matcher)
+                        .appendText(" after call " + path);
+            }
+        });
+    }
+
+    /**
+     * Matcher that compares the object graph with <code>expected</code> field by field, regardless of
+     * <code>equals</code> of the compared classes. Unlike {@link org.hamcrest.Matchers#samePropertyValuesAs} it
+     * recurses into the nested objects, arrays, collections and maps and reports the path of the first difference,
+     * e.g. <code>order.items[3].price was &lt;10.5&gt;, expected &lt;10.0&gt;</code>. JDK value classes
+     * (strings, numbers, dates, etc.) are compared via <code>equals</code>, cycles are supported.
+     *
+     * @param expected expected object graph
+     */
+    public static <T> Matcher<T> deeplyEqualTo(T expected) {
+        Objects.requireNonNull(expected, "expected");
+        return MatcherMetrics.instrumented("MoreMatchers.deeplyEqualTo", new TypeSafeDiagnosingMatcher<T>() {
+            @Override
+            protected boolean matchesSafely(T item, Description mismatchDescription) {
+                String difference = DeepEquality.findDifference(item, expected);
+                if (difference != null) {
+                    mismatchDescription.appendText(difference);
+                }
+                return difference == null;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("deeply equal to ")
+                        .appendValue(expected);
+            }
+        });
     }
 
     /**
@@ -78,7 +149,7 @@ public class MoreMatchers {
      * @param expectedDescription diagnostic message
      */
     public static <T> Matcher<T> predicate(Predicate<T> predicate, String expectedDescription) {
-        return new TypeSafeMatcher<T>() {
+        return MatcherMetrics.instrumented("MoreMatchers.predicate", new TypeSafeMatcher<T>() {
 
             @Override
             protected boolean matchesSafely(T item) {
@@ -89,7 +160,106 @@ public class MoreMatchers {
             public void describeTo(Description description) {
                 description.appendText(expectedDescription);
             }
+        });
+    }
+
+    /**
+     * Parallel counterpart of {@link org.hamcrest.Matchers#everyItem(Matcher)} for expensive item matchers.
+     * The items are matched in the {@link ForkJoinPool#commonPool()}, the remaining work is cancelled on the first
+     * failure. The failing item with the lowest index is reported. The item matcher should be thread-safe.
+     *
+     * @param itemMatcher matcher for every item
+     */
+    public static <T> Matcher<Iterable<? extends T>> everyItemInParallel(Matcher<? super T> itemMatcher) {
+        return everyItemInParallel(itemMatcher, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parallel counterpart of {@link org.hamcrest.Matchers#everyItem(Matcher)} for expensive item matchers.
+     * The items are matched in the passed <code>pool</code>, the remaining work is cancelled on the first
+     * failure. The failing item with the lowest index is reported. The item matcher should be thread-safe.
+     *
+     * @param itemMatcher matcher for every item
+     * @param pool        pool to evaluate item matcher
+     */
+    public static <T> Matcher<Iterable<? extends T>> everyItemInParallel(Matcher<? super T> itemMatcher,
+                                                                         ForkJoinPool pool) {
+        Matcher<Iterable<? extends T>> matcher = new TypeSafeDiagnosingMatcher<Iterable<? extends T>>() {
+            @Override
+            protected boolean matchesSafely(Iterable<? extends T> items, Description mismatchDescription) {
+                List<? extends T> list = toRandomAccessList(items);
+                int index = ParallelScan.findFirst(list, item -> !itemMatcher.matches(item), pool);
+                if (index >= 0) {
+                    mismatchDescription.appendText("an item at index " + index + " ");
+                    itemMatcher.describeMismatch(list.get(index), mismatchDescription);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("every item is ")
+                        .appendDescriptionOf(itemMatcher);
+            }
         };
+        return MatcherMetrics.instrumented("MoreMatchers.everyItemInParallel", matcher);
+    }
+
+    /**
+     * Parallel counterpart of {@link org.hamcrest.Matchers#hasItem(Matcher)} for expensive item matchers.
+     * The items are matched in the {@link ForkJoinPool#commonPool()}, the remaining work is cancelled on the first
+     * success. The item matcher should be thread-safe.
+     *
+     * @param itemMatcher matcher for the item
+     */
+    public static <T> Matcher<Iterable<? extends T>> hasItemInParallel(Matcher<? super T> itemMatcher) {
+        return hasItemInParallel(itemMatcher, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parallel counterpart of {@link org.hamcrest.Matchers#hasItem(Matcher)} for expensive item matchers.
+     * The items are matched in the passed <code>pool</code>, the remaining work is cancelled on the first
+     * success. The item matcher should be thread-safe.
+     *
+     * @param itemMatcher matcher for the item
+     * @param pool        pool to evaluate item matcher
+     */
+    public static <T> Matcher<Iterable<? extends T>> hasItemInParallel(Matcher<? super T> itemMatcher,
+                                                                       ForkJoinPool pool) {
+        Matcher<Iterable<? extends T>> matcher = new TypeSafeDiagnosingMatcher<Iterable<? extends T>>() {
+            @Override
+            protected boolean matchesSafely(Iterable<? extends T> items, Description mismatchDescription) {
+                List<? extends T> list = toRandomAccessList(items);
+                if (list.isEmpty()) {
+                    mismatchDescription.appendText("was empty");
+                    return false;
+                }
+                if (ParallelScan.findFirst(list, itemMatcher::matches, pool) >= 0) {
+                    return true;
+                }
+                mismatchDescription.appendText("no item of " + list.size() + " matched, the first ");
+                itemMatcher.describeMismatch(list.get(0), mismatchDescription);
+                return false;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a collection containing ")
+                        .appendDescriptionOf(itemMatcher);
+            }
+        };
+        return MatcherMetrics.instrumented("MoreMatchers.hasItemInParallel", matcher);
+    }
+
+    private static <T> List<? extends T> toRandomAccessList(Iterable<? extends T> items) {
+        if (items instanceof List && items instanceof RandomAccess) {
+            return (List<? extends T>) items;
+        }
+        // references only, much cheaper than the expensive item matchers
+        List<T> list = new ArrayList<>();
+        items.forEach(list::add);
+        return list;
     }
 
     private MoreMatchers() {
@@ -0,0 +1,118 @@
+package com.github.seregamorph.hamcrest;
+
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeSerialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * GraalVM native image build-time feature, enabled automatically via
+ * <code>META-INF/native-image/com.github.seregamorph/hamcrest-more-matchers/native-image.properties</code>.
+ * Registers for serialization all classes of the application class path that capture serializable lambdas
+ * (i.e. declare the synthetic <code>$deserializeLambda$</code> method), so {@link MoreMatchers#where} and other
+ * matchers describe the lambdas in native test binaries as well.
+ *
+ * @author seregamorph
+ */
+public final class NativeImageFeature implements Feature {
+
+    private static final byte[] DESERIALIZE_LAMBDA = "$deserializeLambda$".getBytes(StandardCharsets.US_ASCII);
+    private static final String CLASS_SUFFIX = ".class";
+
+    @Override
+    public String getDescription() {
+        return "Registers lambda capturing classes for hamcrest-more-matchers";
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        for (Path entry : access.getApplicationClassPath()) {
+            for (String className : findLambdaCapturingClasses(entry)) {
+                Class<?> cls = access.findClassByName(className);
+                if (cls != null) {
+                    RuntimeSerialization.registerLambdaCapturingClass(cls);
+                }
+            }
+        }
+    }
+
+    static List<String> findLambdaCapturingClasses(Path classPathEntry) {
+        List<String> classNames = new ArrayList<>();
+        try {
+            if (Files.isDirectory(classPathEntry)) {
+                List<Path> classFiles;
+                try (Stream<Path> files = Files.walk(classPathEntry)) {
+                    classFiles = files.filter(file -> file.toString().endsWith(CLASS_SUFFIX))
+                            .collect(Collectors.toList());
+                }
+                for (Path classFile : classFiles) {
+                    if (capturesSerializableLambda(Files.readAllBytes(classFile))) {
+                        classNames.add(className(classPathEntry.relativize(classFile).toString()
+                                .replace(classFile.getFileSystem().getSeparator(), "/")));
+                    }
+                }
+            } else if (Files.isRegularFile(classPathEntry)) {
+                try (ZipFile zipFile = new ZipFile(classPathEntry.toFile())) {
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement();
+                        // multi-release versions are the same classes
+                        if (entry.getName().endsWith(CLASS_SUFFIX) && !entry.getName().startsWith("META-INF/")) {
+                            try (InputStream in = zipFile.getInputStream(entry)) {
+                                if (capturesSerializableLambda(readAllBytes(in))) {
+                                    classNames.add(className(entry.getName()));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan " + classPathEntry, e);
+        }
+        return classNames;
+    }
+
+    /**
+     * Checks the constant pool of the class file for the synthetic method name without loading the class.
+     */
+    static boolean capturesSerializableLambda(byte[] classFile) {
+        outer:
+        for (int i = 0; i <= classFile.length - DESERIALIZE_LAMBDA.length; i++) {
+            for (int j = 0; j < DESERIALIZE_LAMBDA.length; j++) {
+                if (classFile[i + j] != DESERIALIZE_LAMBDA[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String className(String classFileName) {
+        return classFileName.substring(0, classFileName.length() - CLASS_SUFFIX.length()).replace('/', '.');
+    }
+
+    private static byte[] readAllBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
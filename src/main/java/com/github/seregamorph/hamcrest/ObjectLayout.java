@@ -0,0 +1,392 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Object layout of the running JVM to estimate shallow sizes of objects: header size, reference size (compressed
+ * oops) and object alignment are taken from the HotSpot VM options, the fields are placed as by the HotSpot field
+ * layout (larger fields first, each aligned by its size, the gaps are filled by the smaller fields).
+ * <p>
+ * The reference fields are read via reflection. The fields of the packages that are not opened to this library
+ * (e.g. <code>java.util</code> of the JDK) are read via <code>sun.misc.Unsafe</code>, which is initialized only
+ * when such a field is found. Since Java 24 the first use of the Unsafe memory access methods prints a deprecation
+ * warning to stderr (unless <code>--sun-misc-unsafe-memory-access=allow</code>), to avoid it the packages can be
+ * opened, e.g. <code>--add-opens java.base/java.util=ALL-UNNAMED</code>. If the access is denied, such fields are
+ * reported as not traversed.
+ */
+final class ObjectLayout {
+
+    private static final int REFERENCE_SIZE;
+    private static final int OBJECT_ALIGNMENT;
+    private static final int HEADER_SIZE;
+
+    private static final ClassValue<ClassLayout> CLASS_LAYOUTS = new ClassValue<ClassLayout>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return type.isArray() ? new ArrayLayout(type) : new InstanceLayout(type);
+        }
+    };
+
+    static {
+        int addressSize = "32".equals(System.getProperty("sun.arch.data.model")) ? 4 : 8;
+        boolean is64Bit = addressSize == 8;
+        REFERENCE_SIZE = is64Bit && !"false".equals(getVMOption("UseCompressedOops")) ? 4 : addressSize;
+        String alignment = getVMOption("ObjectAlignmentInBytes");
+        OBJECT_ALIGNMENT = alignment == null ? 8 : Integer.parseInt(alignment);
+        if (!is64Bit) {
+            HEADER_SIZE = 8;
+        } else if ("true".equals(getVMOption("UseCompactObjectHeaders"))) {
+            HEADER_SIZE = 8;
+        } else {
+            String compressedClassPointers = getVMOption("UseCompressedClassPointers");
+            HEADER_SIZE = compressedClassPointers == null ? 8 + REFERENCE_SIZE
+                    : "true".equals(compressedClassPointers) ? 12 : 16;
+        }
+    }
+
+    static int getReferenceSize() {
+        return REFERENCE_SIZE;
+    }
+
+    static int getObjectAlignment() {
+        return OBJECT_ALIGNMENT;
+    }
+
+    static int getHeaderSize() {
+        return HEADER_SIZE;
+    }
+
+    static ClassLayout of(Class<?> type) {
+        return CLASS_LAYOUTS.get(type);
+    }
+
+    /**
+     * Layout of the instances of a class: shallow size and the reference fields to traverse.
+     */
+    abstract static class ClassLayout {
+
+        abstract long shallowSize(Object obj);
+
+        /**
+         * Adds non-null references of the object to the list.
+         *
+         * @return number of references that are not accessible (not added)
+         */
+        abstract int collectReferences(Object obj, List<Object> references);
+
+        /**
+         * @return description of an inaccessible reference field or null if all are accessible
+         */
+        @Nullable
+        abstract String getInaccessibleField();
+    }
+
+    private static final class InstanceLayout extends ClassLayout {
+
+        private final long shallowSize;
+        private final Field[] referenceFields;
+        /**
+         * Whether the field is accessible via reflection.
+         */
+        private final boolean[] accessible;
+        /**
+         * Offsets of the inaccessible reference fields for Unsafe, -1 if the field is not readable.
+         */
+        private final long[] offsets;
+        @Nullable
+        private final String inaccessibleField;
+
+        private InstanceLayout(Class<?> type) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> cl = type; cl != null; cl = cl.getSuperclass()) {
+                hierarchy.add(0, cl);
+            }
+            List<Field> fields = new ArrayList<>();
+            FieldPlacement placement = new FieldPlacement();
+            for (Class<?> cl : hierarchy) {
+                List<Field> declaredFields = new ArrayList<>();
+                for (Field field : cl.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        declaredFields.add(field);
+                    }
+                }
+                // the fields of the class follow the fields of the superclass or fill its gaps
+                declaredFields.sort((f1, f2) -> fieldSize(f2.getType()) - fieldSize(f1.getType()));
+                for (Field field : declaredFields) {
+                    placement.place(fieldSize(field.getType()));
+                }
+                fields.addAll(declaredFields);
+            }
+            this.shallowSize = align(placement.end);
+
+            List<Field> referenceFields = new ArrayList<>();
+            for (Field field : fields) {
+                if (!field.getType().isPrimitive()) {
+                    referenceFields.add(field);
+                }
+            }
+            this.referenceFields = referenceFields.toArray(new Field[0]);
+            this.accessible = new boolean[this.referenceFields.length];
+            this.offsets = new long[this.referenceFields.length];
+            String inaccessibleField = null;
+            for (int i = 0; i < this.referenceFields.length; i++) {
+                Field field = this.referenceFields[i];
+                accessible[i] = setAccessible(field);
+                offsets[i] = accessible[i] ? -1L : UnsafeAccess.objectFieldOffset(field);
+                if (!accessible[i] && offsets[i] < 0L && inaccessibleField == null) {
+                    inaccessibleField = field.getDeclaringClass().getName() + "." + field.getName();
+                }
+            }
+            this.inaccessibleField = inaccessibleField;
+        }
+
+        @Override
+        long shallowSize(Object obj) {
+            return shallowSize;
+        }
+
+        @Override
+        int collectReferences(Object obj, List<Object> references) {
+            int inaccessibleCount = 0;
+            for (int i = 0; i < referenceFields.length; i++) {
+                Object value;
+                if (accessible[i]) {
+                    try {
+                        value = referenceFields[i].get(obj);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Failed to read " + referenceFields[i], e);
+                    }
+                } else if (offsets[i] >= 0L) {
+                    value = UnsafeAccess.getObject(obj, offsets[i]);
+                } else {
+                    inaccessibleCount++;
+                    continue;
+                }
+                if (value != null) {
+                    references.add(value);
+                }
+            }
+            return inaccessibleCount;
+        }
+
+        @Nullable
+        @Override
+        String getInaccessibleField() {
+            return inaccessibleField;
+        }
+
+        private static boolean setAccessible(Field field) {
+            try {
+                field.setAccessible(true);
+                return true;
+            } catch (RuntimeException e) {
+                // InaccessibleObjectException (Java 9+, not opened module) or SecurityException
+                return false;
+            }
+        }
+    }
+
+    private static final class ArrayLayout extends ClassLayout {
+
+        private final long baseOffset;
+        private final int indexScale;
+        private final boolean primitive;
+
+        private ArrayLayout(Class<?> type) {
+            Class<?> componentType = type.getComponentType();
+            // header and length
+            int baseOffset = HEADER_SIZE + 4;
+            int indexScale = fieldSize(componentType);
+            if (indexScale == 8) {
+                baseOffset = (baseOffset + 7) & ~7;
+            }
+            this.baseOffset = baseOffset;
+            this.indexScale = indexScale;
+            this.primitive = componentType.isPrimitive();
+        }
+
+        @Override
+        long shallowSize(Object obj) {
+            return align(baseOffset + (long) Array.getLength(obj) * indexScale);
+        }
+
+        @Override
+        int collectReferences(Object obj, List<Object> references) {
+            if (!primitive) {
+                for (Object element : (Object[]) obj) {
+                    if (element != null) {
+                        references.add(element);
+                    }
+                }
+            }
+            return 0;
+        }
+
+        @Nullable
+        @Override
+        String getInaccessibleField() {
+            return null;
+        }
+    }
+
+    private static long align(long size) {
+        return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+
+    /**
+     * Places the fields one by one: each field is aligned by its size and fills the first gap that fits.
+     */
+    private static final class FieldPlacement {
+
+        /**
+         * Pairs of the start and end offsets of the gaps.
+         */
+        private final List<long[]> gaps = new ArrayList<>();
+        private long end = HEADER_SIZE;
+
+        void place(int size) {
+            for (int i = 0; i < gaps.size(); i++) {
+                long[] gap = gaps.get(i);
+                long offset = alignTo(gap[0], size);
+                if (offset + size <= gap[1]) {
+                    gaps.remove(i);
+                    addGap(gap[0], offset);
+                    addGap(offset + size, gap[1]);
+                    return;
+                }
+            }
+            long offset = alignTo(end, size);
+            addGap(end, offset);
+            end = offset + size;
+        }
+
+        private void addGap(long start, long end) {
+            if (start < end) {
+                gaps.add(new long[]{start, end});
+            }
+        }
+
+        private static long alignTo(long offset, int size) {
+            return (offset + size - 1) / size * size;
+        }
+    }
+
+    /**
+     * Access to <code>sun.misc.Unsafe</code>, initialized on the first field that is not accessible via reflection.
+     */
+    private static final class UnsafeAccess {
+
+        /**
+         * Bound methods of <code>sun.misc.Unsafe</code> or null if it is not available.
+         */
+        @Nullable
+        private static final MethodHandle OBJECT_FIELD_OFFSET;
+        @Nullable
+        private static final MethodHandle GET_OBJECT;
+
+        static {
+            Object unsafe = findUnsafe();
+            MethodHandle objectFieldOffset = null;
+            MethodHandle getObject = null;
+            if (unsafe != null) {
+                try {
+                    MethodHandles.Lookup lookup = MethodHandles.lookup();
+                    Class<?> unsafeClass = unsafe.getClass();
+                    objectFieldOffset = lookup.findVirtual(unsafeClass, "objectFieldOffset",
+                            MethodType.methodType(long.class, Field.class)).bindTo(unsafe);
+                    getObject = lookup.findVirtual(unsafeClass, "getObject",
+                            MethodType.methodType(Object.class, Object.class, long.class)).bindTo(unsafe);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    objectFieldOffset = null;
+                    getObject = null;
+                }
+            }
+            OBJECT_FIELD_OFFSET = objectFieldOffset;
+            GET_OBJECT = getObject;
+        }
+
+        /**
+         * @return offset of the field or -1 if not available (no Unsafe, denied access, hidden class or record)
+         */
+        static long objectFieldOffset(Field field) {
+            if (OBJECT_FIELD_OFFSET == null) {
+                return -1L;
+            }
+            try {
+                return (long) OBJECT_FIELD_OFFSET.invokeExact(field);
+            } catch (Throwable e) {
+                // UnsupportedOperationException
+                return -1L;
+            }
+        }
+
+        @Nullable
+        static Object getObject(Object obj, long offset) {
+            try {
+                return (Object) GET_OBJECT.invokeExact(obj, offset);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to read reference field of " + obj.getClass(), e);
+            }
+        }
+
+        @Nullable
+        private static Object findUnsafe() {
+            try {
+                Field theUnsafe = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                return theUnsafe.get(null);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return value of the HotSpot VM option or null if it is not available
+     */
+    @Nullable
+    private static String getVMOption(String name) {
+        try {
+            return HotSpotDiagnostic.getVMOption(name);
+        } catch (LinkageError | RuntimeException e) {
+            // NoClassDefFoundError (not a HotSpot compatible JVM) or IllegalArgumentException (unknown option)
+            return null;
+        }
+    }
+
+    /**
+     * Isolates the references to com.sun.management, so the outer class can be loaded on any JVM.
+     */
+    private static final class HotSpotDiagnostic {
+
+        static String getVMOption(String name) {
+            return ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class)
+                    .getVMOption(name).getValue();
+        }
+    }
+
+    private ObjectLayout() {
+    }
+}
@@ -11,7 +11,7 @@ public class OptionalMatchers {
      * Matcher for {@link Optional} that expects that it presents.
      */
     public static <T> Matcher<Optional<T>> isPresent() {
-        return new TypeSafeDiagnosingMatcher<Optional<T>>() {
+        return MatcherMetrics.instrumented("OptionalMatchers.isPresent", new TypeSafeDiagnosingMatcher<Optional<T>>() {
             @Override
             protected boolean matchesSafely(Optional<T> value, Description mismatchDescription) {
                 mismatchDescription.appendText("is " + value);
@@ -22,7 +22,7 @@ public class OptionalMatchers {
             public void describeTo(Description description) {
                 description.appendText("to be present");
             }
-        };
+        });
     }
 
     /**
@@ -31,7 +31,7 @@ public class OptionalMatchers {
      * @param matcher matcher to validate present optional value
      */
     public static <T> Matcher<Optional<T>> isPresent(Matcher<T> matcher) {
-        return new TypeSafeDiagnosingMatcher<Optional<T>>() {
+        return MatcherMetrics.instrumented("OptionalMatchers.isPresent", new TypeSafeDiagnosingMatcher<Optional<T>>() {
             @Override
             protected boolean matchesSafely(Optional<T> value, Description mismatchDescription) {
                 mismatchDescription.appendText("is " + value);
@@ -43,14 +43,14 @@ public class OptionalMatchers {
                 description.appendText("to be present and match ")
                         .appendDescriptionOf(matcher);
             }
-        };
+        });
     }
 
     /**
      * Matcher that expects empty optional.
      */
     public static <T> Matcher<Optional<T>> isEmpty() {
-        return new TypeSafeDiagnosingMatcher<Optional<T>>() {
+        return MatcherMetrics.instrumented("OptionalMatchers.isEmpty", new TypeSafeDiagnosingMatcher<Optional<T>>() {
             @Override
             protected boolean matchesSafely(Optional<T> value, Description mismatchDescription) {
                 mismatchDescription.appendText("is " + value);
@@ -61,7 +61,7 @@ public class OptionalMatchers {
             public void describeTo(Description description) {
                 description.appendText("to be empty");
             }
-        };
+        });
     }
 
     private OptionalMatchers() {
@@ -5,13 +5,34 @@ import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.SortedSet;
+import java.util.function.Supplier;
 
 import static java.util.Comparator.naturalOrder;
 
 /**
  * Additional matchers for hamcrest to validate collection sort (ordering).
+ * <p>
+ * The ordering of {@link Iterable} is verified in a single pass comparing adjacent elements. Some shapes
+ * of collections take a specialized path:
+ * <ul>
+ * <li>{@link SortedSet} or {@link java.util.SortedMap#keySet()} with the comparator equal to the requested one
+ * (or natural ordering) matches both soft and strict order in O(1) without iteration</li>
+ * <li>{@link RandomAccess} {@link List} (e.g. {@link java.util.ArrayList} or {@link java.util.Arrays#asList})
+ * is traversed by index</li>
+ * </ul>
  *
  * @author seregamorph
  */
@@ -71,38 +92,330 @@ public class OrderMatchers {
 
     private static <T> Matcher<Iterable<T>> ordered(Comparator<? super T> comparator, boolean allowEqual,
                                                     @Nullable String comparatorDescription) {
-        return new TypeSafeDiagnosingMatcher<Iterable<T>>() {
+        String factory = allowEqual ? "OrderMatchers.softOrdered" : "OrderMatchers.strictOrdered";
+        return MatcherMetrics.instrumented(factory, new TypeSafeDiagnosingMatcher<Iterable<T>>() {
 
             @Override
             protected boolean matchesSafely(Iterable<T> item, Description mismatchDescription) {
-                Iterator<? extends T> iterator = item.iterator();
-                if (!iterator.hasNext()) {
+                return isOrdered(item, comparator, allowEqual, mismatchDescription);
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText((allowEqual ? "Softly" : "Strictly") + " ordered by "
+                        + (comparatorDescription == null ? "comparator" : comparatorDescription));
+            }
+        });
+    }
+
+    /**
+     * Stateful matcher for append-only lists. Checks that list is ordered by comparator, does not allow equal
+     * (by compare) elements. The matcher remembers the last verified index and element of the list, so the next
+     * evaluation for the same (grown) list only checks the appended tail. If the list was replaced, shrunk
+     * or the last verified element was changed, the whole list is checked again.
+     * The matcher instance should be created once and reused for the subsequent checks (e.g. on each poll).
+     * {@link RandomAccess} lists are read by index up to the size at the start of the check, so a thread-safe list
+     * (e.g. synchronized or copy-on-write) may be appended concurrently; other lists are read via the iterator
+     * and should not be modified while checking.
+     *
+     * @param comparator comparator to use
+     */
+    public static <T> Matcher<List<T>> strictOrderedIncrementally(Comparator<? super T> comparator) {
+        return orderedIncrementally(comparator, false, null);
+    }
+
+    /**
+     * Stateful matcher for append-only lists. Checks that list is naturally ordered, does not allow equal
+     * (by compare) elements. Only the tail appended since the last successful check is verified.
+     *
+     * @see #strictOrderedIncrementally(Comparator)
+     */
+    public static <T extends Comparable<? super T>> Matcher<List<T>> strictOrderedIncrementally() {
+        return orderedIncrementally(naturalOrder(), false, "natural comparator");
+    }
+
+    /**
+     * Stateful matcher for append-only lists. Checks that list is ordered by comparator, allows equal
+     * (by compare) elements. Only the tail appended since the last successful check is verified.
+     *
+     * @param comparator comparator to use
+     * @see #strictOrderedIncrementally(Comparator)
+     */
+    public static <T> Matcher<List<T>> softOrderedIncrementally(Comparator<? super T> comparator) {
+        return orderedIncrementally(comparator, true, null);
+    }
+
+    /**
+     * Stateful matcher for append-only lists. Checks that list is naturally ordered, allows equal
+     * (by compare) elements. Only the tail appended since the last successful check is verified.
+     *
+     * @see #strictOrderedIncrementally(Comparator)
+     */
+    public static <T extends Comparable<? super T>> Matcher<List<T>> softOrderedIncrementally() {
+        return orderedIncrementally(naturalOrder(), true, "natural comparator");
+    }
+
+    private static <T> Matcher<List<T>> orderedIncrementally(Comparator<? super T> comparator, boolean allowEqual,
+                                                             @Nullable String comparatorDescription) {
+        String factory = allowEqual ? "OrderMatchers.softOrderedIncrementally"
+                : "OrderMatchers.strictOrderedIncrementally";
+        return MatcherMetrics.instrumented(factory, new TypeSafeDiagnosingMatcher<List<T>>() {
+
+            @Nullable
+            private List<T> verifiedList;
+            private int verifiedSize;
+            @Nullable
+            private T lastVerified;
+
+            @Override
+            protected synchronized boolean matchesSafely(List<T> list, Description mismatchDescription) {
+                // size snapshot, the elements appended while checking are verified next time
+                int size = list.size();
+                int from = Math.max(verifiedSize - 1, 0);
+                if (list != verifiedList || size < verifiedSize
+                        || (verifiedSize > 0 && list.get(verifiedSize - 1) != lastVerified)) {
+                    // not the same append-only list, fallback to full scan
+                    verifiedList = null;
+                    verifiedSize = 0;
+                    lastVerified = null;
+                    from = 0;
+                }
+                if (size == 0) {
+                    verifiedList = list;
                     return true;
                 }
 
-                T first = iterator.next();
-                while (iterator.hasNext()) {
-                    T next = iterator.next();
-                    int result = comparator.compare(first, next);
-                    if (result == 0 && !allowEqual) {
-                        mismatchDescription.appendText("Found equal elements " + first + " and " + next);
-                        return false;
-                    } else if (result > 0) {
-                        mismatchDescription.appendText("Found unordered elements " + first + " and " + next);
+                // random access by index up to the size snapshot: unlike the iterator, it does not fail
+                // if the list is appended while checking
+                ListIterator<T> iterator = list instanceof RandomAccess ? null : list.listIterator(from);
+                T first = iterator == null ? list.get(from) : iterator.next();
+                for (int i = from + 1; i < size; i++) {
+                    T next = iterator == null ? list.get(i) : iterator.next();
+                    if (!isOrderedPair(first, next, comparator, allowEqual, mismatchDescription)) {
+                        mismatchDescription.appendText(" at index " + i);
                         return false;
                     }
                     first = next;
                 }
-
+                verifiedList = list;
+                verifiedSize = size;
+                lastVerified = first;
                 return true;
             }
 
             @Override
             public void describeTo(Description description) {
                 description.appendText((allowEqual ? "Softly" : "Strictly") + " ordered by "
-                        + (comparatorDescription == null ? "comparator" : comparatorDescription));
+                        + (comparatorDescription == null ? "comparator" : comparatorDescription)
+                        + " (incrementally verified)");
             }
-        };
+        });
+    }
+
+    /**
+     * Checks that the keys of fixed-width records between position and limit of the buffer are ordered.
+     * Does not allow equal keys. The records are read directly from the buffer without allocation,
+     * the buffer state is not changed.
+     *
+     * @param recordSize size of the record in bytes
+     * @param keyOffset  offset of the key within the record
+     * @param keyType    type of the key
+     * @param byteOrder  byte order of the key
+     */
+    public static Matcher<ByteBuffer> strictOrderedRecords(int recordSize, int keyOffset, RecordKeyType keyType,
+                                                           ByteOrder byteOrder) {
+        return orderedRecords(recordSize, keyOffset, keyType, byteOrder, false);
+    }
+
+    /**
+     * Checks that the keys of fixed-width records between position and limit of the buffer are ordered.
+     * Allows equal keys. The records are read directly from the buffer without allocation,
+     * the buffer state is not changed.
+     *
+     * @param recordSize size of the record in bytes
+     * @param keyOffset  offset of the key within the record
+     * @param keyType    type of the key
+     * @param byteOrder  byte order of the key
+     */
+    public static Matcher<ByteBuffer> softOrderedRecords(int recordSize, int keyOffset, RecordKeyType keyType,
+                                                         ByteOrder byteOrder) {
+        return orderedRecords(recordSize, keyOffset, keyType, byteOrder, true);
+    }
+
+    /**
+     * Checks that the keys of fixed-width records of the file are ordered. Does not allow equal keys.
+     * The file is memory-mapped and read without allocation per record.
+     *
+     * @param recordSize size of the record in bytes
+     * @param keyOffset  offset of the key within the record
+     * @param keyType    type of the key
+     * @param byteOrder  byte order of the key
+     */
+    public static Matcher<Path> strictOrderedRecordFile(int recordSize, int keyOffset, RecordKeyType keyType,
+                                                        ByteOrder byteOrder) {
+        return orderedRecordFile(recordSize, keyOffset, keyType, byteOrder, false);
+    }
+
+    /**
+     * Checks that the keys of fixed-width records of the file are ordered. Allows equal keys.
+     * The file is memory-mapped and read without allocation per record.
+     *
+     * @param recordSize size of the record in bytes
+     * @param keyOffset  offset of the key within the record
+     * @param keyType    type of the key
+     * @param byteOrder  byte order of the key
+     */
+    public static Matcher<Path> softOrderedRecordFile(int recordSize, int keyOffset, RecordKeyType keyType,
+                                                      ByteOrder byteOrder) {
+        return orderedRecordFile(recordSize, keyOffset, keyType, byteOrder, true);
+    }
+
+    private static Matcher<ByteBuffer> orderedRecords(int recordSize, int keyOffset, RecordKeyType keyType,
+                                                      ByteOrder byteOrder, boolean allowEqual) {
+        Supplier<RecordOrderScanner> scannerFactory = () ->
+                new RecordOrderScanner(recordSize, keyOffset, keyType, byteOrder, allowEqual);
+        RecordOrderScanner validScanner = scannerFactory.get();
+        String factory = allowEqual ? "OrderMatchers.softOrderedRecords" : "OrderMatchers.strictOrderedRecords";
+        return MatcherMetrics.instrumented(factory, new TypeSafeDiagnosingMatcher<ByteBuffer>() {
+
+            @Override
+            protected boolean matchesSafely(ByteBuffer buffer, Description mismatchDescription) {
+                int trailingBytes = buffer.remaining() % recordSize;
+                if (trailingBytes != 0) {
+                    mismatchDescription.appendText("Found " + trailingBytes + " trailing bytes after "
+                            + buffer.remaining() / recordSize + " records");
+                    return false;
+                }
+                return scannerFactory.get().scan(buffer, mismatchDescription);
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText((allowEqual ? "Softly" : "Strictly") + " ordered "
+                        + validScanner.describe());
+            }
+        });
+    }
+
+    private static Matcher<Path> orderedRecordFile(int recordSize, int keyOffset, RecordKeyType keyType,
+                                                   ByteOrder byteOrder, boolean allowEqual) {
+        return orderedRecordFile(recordSize, keyOffset, keyType, byteOrder, allowEqual, Integer.MAX_VALUE);
+    }
+
+    static Matcher<Path> orderedRecordFile(int recordSize, int keyOffset, RecordKeyType keyType,
+                                           ByteOrder byteOrder, boolean allowEqual, int maxMappedWindow) {
+        Supplier<RecordOrderScanner> scannerFactory = () ->
+                new RecordOrderScanner(recordSize, keyOffset, keyType, byteOrder, allowEqual);
+        RecordOrderScanner validScanner = scannerFactory.get();
+        String factory = allowEqual ? "OrderMatchers.softOrderedRecordFile" : "OrderMatchers.strictOrderedRecordFile";
+        return MatcherMetrics.instrumented(factory, new TypeSafeDiagnosingMatcher<Path>() {
+
+            @Override
+            protected boolean matchesSafely(Path path, Description mismatchDescription) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    long trailingBytes = size % recordSize;
+                    if (trailingBytes != 0) {
+                        mismatchDescription.appendText("Found " + trailingBytes + " trailing bytes after "
+                                + size / recordSize + " records");
+                        return false;
+                    }
+                    RecordOrderScanner scanner = scannerFactory.get();
+                    // mapped windows are aligned to the record size, the scanner keeps the last key between them
+                    long windowSize = (long) Math.max(1, maxMappedWindow / recordSize) * recordSize;
+                    for (long position = 0; position < size; position += windowSize) {
+                        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                Math.min(windowSize, size - position));
+                        if (!scanner.scan(window, mismatchDescription)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("File of " + (allowEqual ? "softly" : "strictly") + " ordered "
+                        + validScanner.describe());
+            }
+        });
+    }
+
+    /**
+     * Compares adjacent elements of the iterable. A {@link SortedSet} (including the key set of a
+     * {@link java.util.SortedMap}) with the same comparator is ordered by definition and is not iterated,
+     * a {@link RandomAccess} list (including {@link java.util.Arrays#asList}) is traversed by index without
+     * iterator allocation.
+     *
+     * @param mismatchDescription receives the first violating pair, may be null if diagnostics are not needed
+     * @return true if all adjacent pairs are ordered
+     */
+    static <T> boolean isOrdered(Iterable<? extends T> items, Comparator<? super T> comparator, boolean allowEqual,
+                                 @Nullable Description mismatchDescription) {
+        if (items instanceof SortedSet && isSameOrder(((SortedSet<?>) items).comparator(), comparator)) {
+            // equal (by compare) elements are also impossible in SortedSet
+            return true;
+        }
+
+        if (items instanceof List && items instanceof RandomAccess) {
+            List<? extends T> list = (List<? extends T>) items;
+            int size = list.size();
+            if (size == 0) {
+                return true;
+            }
+
+            T first = list.get(0);
+            for (int i = 1; i < size; i++) {
+                T next = list.get(i);
+                if (!isOrderedPair(first, next, comparator, allowEqual, mismatchDescription)) {
+                    return false;
+                }
+                first = next;
+            }
+            return true;
+        }
+
+        Iterator<? extends T> iterator = items.iterator();
+        if (!iterator.hasNext()) {
+            return true;
+        }
+
+        T first = iterator.next();
+        while (iterator.hasNext()) {
+            T next = iterator.next();
+            if (!isOrderedPair(first, next, comparator, allowEqual, mismatchDescription)) {
+                return false;
+            }
+            first = next;
+        }
+
+        return true;
+    }
+
+    private static <T> boolean isOrderedPair(T first, T next, Comparator<? super T> comparator, boolean allowEqual,
+                                             @Nullable Description mismatchDescription) {
+        int result = comparator.compare(first, next);
+        if (result == 0 && !allowEqual) {
+            if (mismatchDescription != null) {
+                mismatchDescription.appendText("Found equal elements " + first + " and " + next);
+            }
+            return false;
+        } else if (result > 0) {
+            if (mismatchDescription != null) {
+                mismatchDescription.appendText("Found unordered elements " + first + " and " + next);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isSameOrder(@Nullable Comparator<?> sortedSetComparator, Comparator<?> comparator) {
+        // null comparator of SortedSet means natural ordering
+        return sortedSetComparator == null ? comparator.equals(naturalOrder())
+                : sortedSetComparator.equals(comparator);
     }
 
     private OrderMatchers() {
@@ -0,0 +1,73 @@
+package com.github.seregamorph.hamcrest;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Parallel search of the lowest index of the list element that satisfies the predicate.
+ * Once an element is found, the elements with higher indices are not tested anymore, while the elements with
+ * lower indices are still tested, so the result is deterministic and equals to the sequential search.
+ */
+final class ParallelScan {
+
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    /**
+     * @param list random access list
+     * @return the lowest index of the element satisfying the predicate or -1 if not found
+     */
+    static <T> int findFirst(List<? extends T> list, Predicate<? super T> predicate, ForkJoinPool pool) {
+        int size = list.size();
+        AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE);
+        int threshold = Math.max(1, size / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        pool.invoke(new SearchAction<>(list, predicate, 0, size, threshold, found));
+        int index = found.get();
+        return index == Integer.MAX_VALUE ? -1 : index;
+    }
+
+    private static final class SearchAction<T> extends RecursiveAction {
+
+        private final List<? extends T> list;
+        private final Predicate<? super T> predicate;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final AtomicInteger found;
+
+        private SearchAction(List<? extends T> list, Predicate<? super T> predicate, int from, int to,
+                             int threshold, AtomicInteger found) {
+            this.list = list;
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to && i < found.get(); i++) {
+                    if (predicate.test(list.get(i))) {
+                        found.accumulateAndGet(i, Math::min);
+                        return;
+                    }
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            SearchAction<T> right = new SearchAction<>(list, predicate, middle, to, threshold, found);
+            right.fork();
+            // the lower half is computed first, so it cancels the upper half as soon as possible
+            new SearchAction<>(list, predicate, from, middle, threshold, found).compute();
+            right.join();
+        }
+    }
+
+    private ParallelScan() {
+    }
+}
@@ -0,0 +1,429 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Matchers to assert performance characteristics of the code under test. The code is executed
+ * <code>warmupIterations</code> times (to let JIT compile it), then measured <code>iterations</code> times
+ * in the caller thread. The mismatch is described by the result of the last measurement of the same item.
+ *
+ * @author seregamorph
+ */
+public class PerformanceMatchers {
+
+    static final int DEFAULT_WARMUP_ITERATIONS = 100;
+    static final int DEFAULT_ITERATIONS = 1_000;
+
+    static final int DEFAULT_MIN_SIZE = 1_000;
+    static final int DEFAULT_MAX_SIZE = 32_000;
+
+    /**
+     * The fit of the expected complexity may be worse than the best one by this relative error (noise).
+     */
+    private static final double FIT_TOLERANCE = 0.1;
+    private static final int MIN_REPETITIONS = 5;
+    private static final int MAX_REPETITIONS = 1_000;
+    private static final long MIN_SIZE_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    /**
+     * Matcher that expects that every measured invocation of the code completes within <code>duration</code>,
+     * after {@value #DEFAULT_WARMUP_ITERATIONS} warmup iterations and {@value #DEFAULT_ITERATIONS} measured
+     * iterations.
+     *
+     * @param duration max duration of an invocation
+     */
+    public static Matcher<ThrowingRunnable> completesWithin(Duration duration) {
+        return completesWithin(duration, DEFAULT_WARMUP_ITERATIONS, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Matcher that expects that every measured invocation of the code completes within <code>duration</code>.
+     *
+     * @param duration         max duration of an invocation
+     * @param warmupIterations number of invocations before measurement
+     * @param iterations       number of measured invocations
+     */
+    public static Matcher<ThrowingRunnable> completesWithin(Duration duration, int warmupIterations,
+                                                            int iterations) {
+        long maxNanos = duration.toNanos();
+        return MatcherMetrics.instrumented("PerformanceMatchers.completesWithin",
+                new LatencyMatcher(warmupIterations, iterations) {
+                    @Override
+                    boolean matchesResult(LatencyHistogram histogram) {
+                        return histogram.getMaxNanos() <= maxNanos;
+                    }
+
+                    @Override
+                    void describeLatency(LatencyHistogram histogram, Description mismatchDescription) {
+                        mismatchDescription.appendText("max latency was "
+                                + LatencyHistogram.formatNanos(histogram.getMaxNanos()));
+                    }
+
+                    @Override
+                    public void describeTo(Description description) {
+                        description.appendText("completes within " + LatencyHistogram.formatNanos(maxNanos));
+                        describeIterations(description);
+                    }
+                });
+    }
+
+    /**
+     * Matcher for the latency percentile of the code, after {@value #DEFAULT_WARMUP_ITERATIONS} warmup
+     * iterations and {@value #DEFAULT_ITERATIONS} measured iterations. E.g.
+     * <pre>
+     * assertThat(() -&gt; cache.get(key), latencyPercentile(99.0, lessThan(Duration.ofNanos(50_000))));
+     * </pre>
+     *
+     * @param percentile percentile in range (0, 100]
+     * @param matcher    matcher for the latency at the percentile
+     */
+    public static Matcher<ThrowingRunnable> latencyPercentile(double percentile, Matcher<? super Duration> matcher) {
+        return latencyPercentile(percentile, matcher, DEFAULT_WARMUP_ITERATIONS, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Matcher for the latency percentile of the code.
+     *
+     * @param percentile       percentile in range (0, 100]
+     * @param matcher          matcher for the latency at the percentile
+     * @param warmupIterations number of invocations before measurement
+     * @param iterations       number of measured invocations
+     */
+    public static Matcher<ThrowingRunnable> latencyPercentile(double percentile, Matcher<? super Duration> matcher,
+                                                              int warmupIterations, int iterations) {
+        if (!(percentile > 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("percentile should be in range (0, 100]: " + percentile);
+        }
+        String percentileName = "p" + LatencyHistogram.percentileName(percentile);
+        return MatcherMetrics.instrumented("PerformanceMatchers.latencyPercentile",
+                new LatencyMatcher(warmupIterations, iterations) {
+                    @Override
+                    boolean matchesResult(LatencyHistogram histogram) {
+                        return matcher.matches(Duration.ofNanos(histogram.getValueAtPercentile(percentile)));
+                    }
+
+                    @Override
+                    void describeLatency(LatencyHistogram histogram, Description mismatchDescription) {
+                        mismatchDescription.appendText(percentileName + " latency ");
+                        matcher.describeMismatch(Duration.ofNanos(histogram.getValueAtPercentile(percentile)),
+                                mismatchDescription);
+                    }
+
+                    @Override
+                    public void describeTo(Description description) {
+                        description.appendText(percentileName + " latency ")
+                                .appendDescriptionOf(matcher);
+                        describeIterations(description);
+                    }
+                });
+    }
+
+    /**
+     * Matcher that expects that the code allocates at most <code>bytes</code> per invocation on average
+     * (rounded down), after {@value #DEFAULT_WARMUP_ITERATIONS} warmup iterations and {@value #DEFAULT_ITERATIONS}
+     * measured iterations. Use 0 to verify that a hot path does not allocate. The allocations are measured per
+     * thread via {@link com.sun.management.ThreadMXBean}, on JVMs that do not support it the matcher fails with
+     * "unsupported" diagnostics.
+     *
+     * @param bytes max average allocated bytes per invocation
+     */
+    public static Matcher<ThrowingRunnable> allocatesAtMost(long bytes) {
+        return allocatesAtMost(bytes, DEFAULT_WARMUP_ITERATIONS, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Matcher that expects that the code allocates at most <code>bytes</code> per invocation on average
+     * (rounded down).
+     *
+     * @param bytes            max average allocated bytes per invocation
+     * @param warmupIterations number of invocations before measurement
+     * @param iterations       number of measured invocations
+     */
+    public static Matcher<ThrowingRunnable> allocatesAtMost(long bytes, int warmupIterations, int iterations) {
+        Matcher<ThrowingRunnable> matcher = new IteratingMatcher<Long>(warmupIterations, iterations) {
+            @Override
+            Long measureIterations(ThrowingRunnable runnable) throws Exception {
+                if (!ThreadAllocation.isSupported()) {
+                    return -1L;
+                }
+                // the counter itself may allocate
+                long overhead = ThreadAllocation.currentThreadAllocatedBytes();
+                overhead = ThreadAllocation.currentThreadAllocatedBytes() - overhead;
+
+                long start = ThreadAllocation.currentThreadAllocatedBytes();
+                for (int i = 0; i < iterations; i++) {
+                    runnable.run();
+                }
+                long allocated = ThreadAllocation.currentThreadAllocatedBytes() - start - overhead;
+                return Math.max(allocated, 0L);
+            }
+
+            @Override
+            boolean matchesResult(Long allocated) {
+                return allocated >= 0 && allocated / iterations <= bytes;
+            }
+
+            @Override
+            void describeResult(Long allocated, Description mismatchDescription) {
+                if (allocated < 0) {
+                    mismatchDescription.appendText("allocation measurement is unsupported by this JVM");
+                } else {
+                    mismatchDescription.appendText("allocated " + allocated / iterations + " bytes/op ("
+                            + allocated + " bytes in " + iterations + " iterations)");
+                }
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("allocates at most " + bytes + " bytes/op");
+                describeIterations(description);
+            }
+        };
+        return MatcherMetrics.instrumented("PerformanceMatchers.allocatesAtMost", matcher);
+    }
+
+    /**
+     * Matcher that expects that the execution time of the operation grows not faster than <code>complexity</code>
+     * with the input size, measured for the sizes from {@value #DEFAULT_MIN_SIZE} to {@value #DEFAULT_MAX_SIZE}.
+     * E.g.
+     * <pre>
+     * assertThat(list -&gt; {
+ *     Collections.sort(list);
+ *     return list;
+ * }, scalesAs(Complexity.N_LOG_N, size -&gt; randomList(size)));
+     * </pre>
+     *
+     * @param complexity     expected complexity
+     * @param inputGenerator generates the input of the given size, not measured
+     * @see #scalesAs(Complexity, IntFunction, int, int)
+     */
+    public static <T> Matcher<ThrowingFunction<T, ?>> scalesAs(Complexity complexity,
+                                                               IntFunction<? extends T> inputGenerator) {
+        return scalesAs(complexity, inputGenerator, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Matcher that expects that the execution time of the operation grows not faster than <code>complexity</code>
+     * with the input size. The operation is measured for geometrically increasing sizes (doubling from
+     * <code>minSize</code> up to <code>maxSize</code>) after warmup, for each size the minimal time of several
+     * repetitions is taken. Then the timings are fitted to each {@link Complexity} by relative least squares:
+     * the matcher fails if a faster growing complexity fits better than the expected one (beyond noise tolerance).
+     * The measured table is rendered on mismatch.
+     *
+     * @param complexity     expected complexity
+     * @param inputGenerator generates the input of the given size, not measured. A fresh input is generated for
+     *                       each invocation, so the operation may modify it
+     * @param minSize        the smallest input size
+     * @param maxSize        the largest input size
+     */
+    public static <T> Matcher<ThrowingFunction<T, ?>> scalesAs(Complexity complexity,
+                                                               IntFunction<? extends T> inputGenerator,
+                                                               int minSize, int maxSize) {
+        if (minSize <= 0 || maxSize < minSize * 4L) {
+            throw new IllegalArgumentException("At least 3 sizes are required to fit, minSize " + minSize
+                    + " should be positive and maxSize " + maxSize + " at least 4 times larger");
+        }
+        Matcher<ThrowingFunction<T, ?>> matcher = new MeasuringMatcher<ThrowingFunction<T, ?>, Scaling>() {
+            /**
+             * Consumes the results, so JIT does not eliminate the operation as dead code.
+             */
+            private volatile Object sink;
+
+            @Override
+            Scaling measure(ThrowingFunction<T, ?> operation) throws Exception {
+                // warmup on the smallest size
+                long warmupDeadline = System.nanoTime() + MIN_SIZE_NANOS;
+                for (int i = 0; i < MIN_REPETITIONS || System.nanoTime() < warmupDeadline; i++) {
+                    sink = operation.apply(inputGenerator.apply(minSize));
+                }
+
+                List<Integer> sizes = new ArrayList<>();
+                for (long size = minSize; size <= maxSize; size *= 2) {
+                    sizes.add((int) size);
+                }
+                long[] nanos = new long[sizes.size()];
+                for (int i = 0; i < nanos.length; i++) {
+                    nanos[i] = measureSize(operation, sizes.get(i));
+                }
+                return new Scaling(sizes, nanos);
+            }
+
+            private long measureSize(ThrowingFunction<T, ?> operation, int size) throws Exception {
+                long minNanos = Long.MAX_VALUE;
+                long totalNanos = 0;
+                for (int i = 0; i < MAX_REPETITIONS && (i < MIN_REPETITIONS || totalNanos < MIN_SIZE_NANOS); i++) {
+                    T input = inputGenerator.apply(size);
+                    long start = System.nanoTime();
+                    Object result = operation.apply(input);
+                    long elapsed = System.nanoTime() - start;
+                    sink = result;
+                    minNanos = Math.min(minNanos, elapsed);
+                    totalNanos += elapsed;
+                }
+                return Math.max(minNanos, 1L);
+            }
+
+            @Override
+            boolean matchesResult(Scaling scaling) {
+                Complexity bestFit = scaling.getBestFit();
+                return bestFit.ordinal() <= complexity.ordinal()
+                        || scaling.getFitError(complexity) <= scaling.getFitError(bestFit) + FIT_TOLERANCE;
+            }
+
+            @Override
+            void describeResult(Scaling scaling, Description mismatchDescription) {
+                Complexity bestFit = scaling.getBestFit();
+                mismatchDescription.appendText("scaled as " + bestFit + " (fit error "
+                        + formatPercent(scaling.getFitError(bestFit)) + ", " + complexity + " fit error "
+                        + formatPercent(scaling.getFitError(complexity)) + "), measured:")
+                        .appendText(scaling.toTable());
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("scales as " + complexity + " (input sizes " + minSize + ".." + maxSize + ")");
+            }
+        };
+        return MatcherMetrics.instrumented("PerformanceMatchers.scalesAs", matcher);
+    }
+
+    private static String formatPercent(double value) {
+        return String.format(Locale.ROOT, "%.1f%%", value * 100.0);
+    }
+
+    private abstract static class IteratingMatcher<R> extends MeasuringMatcher<ThrowingRunnable, R> {
+
+        final int warmupIterations;
+        final int iterations;
+
+        IteratingMatcher(int warmupIterations, int iterations) {
+            if (warmupIterations < 0) {
+                throw new IllegalArgumentException("warmupIterations should not be negative: " + warmupIterations);
+            }
+            if (iterations <= 0) {
+                throw new IllegalArgumentException("iterations should be positive: " + iterations);
+            }
+            this.warmupIterations = warmupIterations;
+            this.iterations = iterations;
+        }
+
+        abstract R measureIterations(ThrowingRunnable runnable) throws Exception;
+
+        @Override
+        R measure(ThrowingRunnable runnable) throws Exception {
+            for (int i = 0; i < warmupIterations; i++) {
+                runnable.run();
+            }
+            return measureIterations(runnable);
+        }
+
+        void describeIterations(Description description) {
+            description.appendText(" (" + iterations + " iterations after " + warmupIterations + " warmup)");
+        }
+    }
+
+    private abstract static class LatencyMatcher extends IteratingMatcher<LatencyHistogram> {
+
+        LatencyMatcher(int warmupIterations, int iterations) {
+            super(warmupIterations, iterations);
+        }
+
+        @Override
+        LatencyHistogram measureIterations(ThrowingRunnable runnable) throws Exception {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                runnable.run();
+                histogram.record(System.nanoTime() - start);
+            }
+            return histogram;
+        }
+
+        abstract void describeLatency(LatencyHistogram histogram, Description mismatchDescription);
+
+        @Override
+        void describeResult(LatencyHistogram histogram, Description mismatchDescription) {
+            describeLatency(histogram, mismatchDescription);
+            mismatchDescription.appendText(", latency distribution of " + histogram.getTotalCount() + " iterations:")
+                    .appendText(histogram.toTable());
+        }
+    }
+
+    /**
+     * Measured time per input size and its fit to each complexity.
+     */
+    static final class Scaling {
+
+        private final List<Integer> sizes;
+        private final long[] nanos;
+        private final double[] fitErrors = new double[Complexity.values().length];
+
+        Scaling(List<Integer> sizes, long[] nanos) {
+            this.sizes = sizes;
+            this.nanos = nanos;
+            for (Complexity complexity : Complexity.values()) {
+                fitErrors[complexity.ordinal()] = fitError(complexity);
+            }
+        }
+
+        /**
+         * Fits <code>time = a * f(n)</code> minimizing the sum of squared relative errors.
+         *
+         * @return root mean square of relative errors
+         */
+        private double fitError(Complexity complexity) {
+            double numerator = 0.0;
+            double denominator = 0.0;
+            for (int i = 0; i < nanos.length; i++) {
+                double ratio = complexity.apply(sizes.get(i)) / nanos[i];
+                numerator += ratio;
+                denominator += ratio * ratio;
+            }
+            double a = numerator / denominator;
+            double sumSquares = 0.0;
+            for (int i = 0; i < nanos.length; i++) {
+                double error = 1.0 - a * complexity.apply(sizes.get(i)) / nanos[i];
+                sumSquares += error * error;
+            }
+            return Math.sqrt(sumSquares / nanos.length);
+        }
+
+        double getFitError(Complexity complexity) {
+            return fitErrors[complexity.ordinal()];
+        }
+
+        Complexity getBestFit() {
+            Complexity bestFit = Complexity.CONSTANT;
+            for (Complexity complexity : Complexity.values()) {
+                if (getFitError(complexity) < getFitError(bestFit)) {
+                    bestFit = complexity;
+                }
+            }
+            return bestFit;
+        }
+
+        String toTable() {
+            StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%n    %10s %12s", "n", "time"));
+            for (int i = 0; i < nanos.length; i++) {
+                sb.append(String.format(Locale.ROOT, "%n    %10d %12s", sizes.get(i),
+                        LatencyHistogram.formatNanos(nanos[i])));
+            }
+            sb.append(String.format(Locale.ROOT, "%n    fit errors:"));
+            for (Complexity complexity : Complexity.values()) {
+                sb.append(' ').append(complexity).append(' ').append(formatPercent(getFitError(complexity)));
+            }
+            return sb.toString();
+        }
+    }
+
+    private PerformanceMatchers() {
+    }
+}
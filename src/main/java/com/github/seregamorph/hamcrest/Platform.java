@@ -0,0 +1,84 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Access to the features of the newer JDK versions while the library is compiled for Java 8. This is the only
+ * class with JDK specific implementations: the multi-release jar contains optimized versions of it
+ * for Java 17 (src/main/java17) and Java 21 (src/main/java21), this one is the fallback.
+ */
+final class Platform {
+
+    @Nullable
+    private static final Method START_VIRTUAL_THREAD = findStartVirtualThread();
+
+    /**
+     * Set when the method exists, but virtual threads are a disabled preview feature (Java 19-20).
+     */
+    private static volatile boolean virtualThreadsUnsupported;
+
+    /**
+     * Starts a virtual thread (Java 21+).
+     *
+     * @return started thread or null if virtual threads are not supported by the running JVM
+     */
+    @Nullable
+    static Thread startVirtualThread(Runnable task) {
+        if (START_VIRTUAL_THREAD == null || virtualThreadsUnsupported) {
+            return null;
+        }
+        try {
+            return (Thread) START_VIRTUAL_THREAD.invoke(null, task);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to start virtual thread", e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException) {
+                // Java 19-20 without --enable-preview
+                virtualThreadsUnsupported = true;
+                return null;
+            }
+            throw new IllegalStateException("Failed to start virtual thread", e.getCause());
+        }
+    }
+
+    /**
+     * Calls synthetic <code>writeReplace</code> method of serializable lambda.
+     *
+     * @return serialized form or null if the object is not a lambda
+     */
+    @Nullable
+    static SerializedLambda getSerializedLambda(Serializable lambda) {
+        for (Class<?> cl = lambda.getClass(); cl != null; cl = cl.getSuperclass()) {
+            try {
+                Method m = cl.getDeclaredMethod("writeReplace");
+                m.setAccessible(true);
+                Object replacement = m.invoke(lambda);
+                if (!(replacement instanceof SerializedLambda)) {
+                    break;
+                }
+                return (SerializedLambda) replacement;
+            } catch (NoSuchMethodException e) {
+                // skip, continue
+            } catch (IllegalAccessException | InvocationTargetException | SecurityException e) {
+                throw new IllegalStateException("Failed to call writeReplace", e);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Method findStartVirtualThread() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private Platform() {
+    }
+}
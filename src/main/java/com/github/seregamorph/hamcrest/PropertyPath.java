@@ -0,0 +1,245 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parsed property path like <code>address.city</code> or <code>items[0].sku</code>. The path is parsed once,
+ * the getters are resolved on the first access and cached per runtime class as {@link MethodHandle}, so the
+ * extraction does not use bean introspection. A property is read via <code>getX()</code>, <code>isX()</code>,
+ * record-style <code>x()</code> accessor or public field <code>x</code>. The index is applied to lists and arrays.
+ */
+final class PropertyPath {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Getters by property name per runtime class, empty if the class has no such property.
+     */
+    private static final ClassValue<ConcurrentMap<String, Optional<MethodHandle>>> GETTERS =
+            new ClassValue<ConcurrentMap<String, Optional<MethodHandle>>>() {
+                @Override
+                protected ConcurrentMap<String, Optional<MethodHandle>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final String path;
+    /**
+     * Property names or {@link Integer} indexes.
+     */
+    private final Object[] segments;
+
+    private PropertyPath(String path, Object[] segments) {
+        this.path = path;
+        this.segments = segments;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    static PropertyPath parse(String path) {
+        List<Object> segments = new ArrayList<>();
+        int pos = 0;
+        while (pos < path.length()) {
+            char ch = path.charAt(pos);
+            if (ch == '[') {
+                int end = path.indexOf(']', pos);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed index at " + pos + " of property path " + path);
+                }
+                int index;
+                try {
+                    index = Integer.parseInt(path.substring(pos + 1, end));
+                } catch (NumberFormatException e) {
+                    index = -1;
+                }
+                if (index < 0) {
+                    throw new IllegalArgumentException("Invalid index at " + pos + " of property path " + path);
+                }
+                segments.add(index);
+                pos = end + 1;
+            } else {
+                if (!segments.isEmpty()) {
+                    if (ch != '.') {
+                        throw new IllegalArgumentException("Expected '.' at " + pos + " of property path " + path);
+                    }
+                    pos++;
+                }
+                int start = pos;
+                while (pos < path.length() && (pos == start ? Character.isJavaIdentifierStart(path.charAt(pos))
+                        : Character.isJavaIdentifierPart(path.charAt(pos)))) {
+                    pos++;
+                }
+                if (pos == start) {
+                    throw new IllegalArgumentException("Invalid property name at " + start
+                            + " of property path " + path);
+                }
+                segments.add(path.substring(start, pos));
+            }
+        }
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Empty property path");
+        }
+        return new PropertyPath(path, segments.toArray());
+    }
+
+    /**
+     * @return the value or {@link Unresolved} if an intermediate value is null or the index is out of bounds
+     */
+    @Nullable
+    Object extract(Object root) throws Throwable {
+        Object value = root;
+        for (int i = 0; i < segments.length; i++) {
+            if (value == null) {
+                return new Unresolved(i, "was null");
+            }
+            Object segment = segments[i];
+            if (segment instanceof Integer) {
+                int index = (Integer) segment;
+                int size = value instanceof List ? ((List<?>) value).size()
+                        : value.getClass().isArray() ? Array.getLength(value) : -1;
+                if (size < 0) {
+                    throw new IllegalArgumentException("Cannot apply index [" + index + "] to "
+                            + value.getClass().getName() + ", it is neither a list nor an array");
+                }
+                if (index >= size) {
+                    return new Unresolved(i + 1, "does not exist, size was " + size);
+                }
+                value = value instanceof List ? ((List<?>) value).get(index) : Array.get(value, index);
+            } else {
+                value = (Object) getter(value.getClass(), (String) segment).invokeExact(value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return the path up to (not including) the segment
+     */
+    String subPath(int segmentIndex) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < segmentIndex; i++) {
+            if (segments[i] instanceof Integer) {
+                sb.append('[').append(segments[i]).append(']');
+            } else {
+                if (sb.length() > 0) {
+                    sb.append('.');
+                }
+                sb.append(segments[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private static MethodHandle getter(Class<?> type, String name) {
+        Optional<MethodHandle> getter = GETTERS.get(type).computeIfAbsent(name,
+                k -> Optional.ofNullable(findGetter(type, k)));
+        if (!getter.isPresent()) {
+            throw new IllegalArgumentException("No readable property " + name + " in " + type.getName());
+        }
+        return getter.get();
+    }
+
+    @Nullable
+    private static MethodHandle findGetter(Class<?> type, String name) {
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String[] methodNames = {"get" + capitalized, "is" + capitalized, name};
+        for (int i = 0; i < methodNames.length; i++) {
+            Method method;
+            try {
+                method = type.getMethod(methodNames[i]);
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            if (method.getReturnType() == void.class || Modifier.isStatic(method.getModifiers())
+                    || i == 1 && method.getReturnType() != boolean.class) {
+                continue;
+            }
+            MethodHandle getter = unreflect(type, method);
+            if (getter != null) {
+                return getter;
+            }
+        }
+        try {
+            Field field = type.getField(name);
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+            }
+        } catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+            // no such field or not accessible
+        }
+        return null;
+    }
+
+    /**
+     * Public methods of non-public classes (e.g. JDK collection implementations) are called via the public
+     * supertype that declares them.
+     */
+    @Nullable
+    private static MethodHandle unreflect(Class<?> type, Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            method.setAccessible(true);
+            return lookup.unreflect(method).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // InaccessibleObjectException (Java 9+, not opened module) or SecurityException
+        }
+        Deque<Class<?>> supertypes = new ArrayDeque<>();
+        supertypes.add(type);
+        while (!supertypes.isEmpty()) {
+            Class<?> supertype = supertypes.poll();
+            if (Modifier.isPublic(supertype.getModifiers())) {
+                try {
+                    return lookup.unreflect(supertype.getMethod(method.getName())).asType(GETTER_TYPE);
+                } catch (NoSuchMethodException | IllegalAccessException e) {
+                    // continue
+                }
+            }
+            if (supertype.getSuperclass() != null) {
+                supertypes.add(supertype.getSuperclass());
+            }
+            for (Class<?> supertypeInterface : supertype.getInterfaces()) {
+                supertypes.add(supertypeInterface);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The result of extraction when the path cannot be followed.
+     */
+    static final class Unresolved {
+
+        private final int segmentIndex;
+        private final String reason;
+
+        private Unresolved(int segmentIndex, String reason) {
+            this.segmentIndex = segmentIndex;
+            this.reason = reason;
+        }
+
+        String describe(PropertyPath path) {
+            return segmentIndex == 0 ? reason : path.subPath(segmentIndex) + " " + reason;
+        }
+    }
+}
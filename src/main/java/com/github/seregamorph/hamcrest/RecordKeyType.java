@@ -0,0 +1,129 @@
+package com.github.seregamorph.hamcrest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Type of the key of fixed-width records.
+ *
+ * @see OrderMatchers#strictOrderedRecords(int, int, RecordKeyType, java.nio.ByteOrder)
+ */
+public enum RecordKeyType {
+
+    BYTE(1) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.get(index);
+        }
+    },
+    UNSIGNED_BYTE(1) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.get(index) & 0xffL;
+        }
+    },
+    SHORT(2) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.getShort(index);
+        }
+    },
+    UNSIGNED_SHORT(2) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.getShort(index) & 0xffffL;
+        }
+    },
+    INT(4) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.getInt(index);
+        }
+    },
+    UNSIGNED_INT(4) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.getInt(index) & 0xffffffffL;
+        }
+    },
+    LONG(8) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.getLong(index);
+        }
+    },
+    UNSIGNED_LONG(8) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return buffer.getLong(index);
+        }
+
+        @Override
+        int compare(long key1, long key2) {
+            return Long.compareUnsigned(key1, key2);
+        }
+
+        @Override
+        String toString(long key) {
+            return Long.toUnsignedString(key);
+        }
+    },
+    FLOAT(4) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return Double.doubleToRawLongBits(buffer.getFloat(index));
+        }
+
+        @Override
+        int compare(long key1, long key2) {
+            return Double.compare(Double.longBitsToDouble(key1), Double.longBitsToDouble(key2));
+        }
+
+        @Override
+        String toString(long key) {
+            return String.valueOf((float) Double.longBitsToDouble(key));
+        }
+    },
+    DOUBLE(8) {
+        @Override
+        long read(ByteBuffer buffer, int index) {
+            return Double.doubleToRawLongBits(buffer.getDouble(index));
+        }
+
+        @Override
+        int compare(long key1, long key2) {
+            return Double.compare(Double.longBitsToDouble(key1), Double.longBitsToDouble(key2));
+        }
+
+        @Override
+        String toString(long key) {
+            return String.valueOf(Double.longBitsToDouble(key));
+        }
+    };
+
+    private final int size;
+
+    RecordKeyType(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return size of the key in bytes
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Reads the key at absolute index with the byte order of the buffer. Keys of all types are represented
+     * as long (floating point keys as raw bits), so no boxing happens while scanning.
+     */
+    abstract long read(ByteBuffer buffer, int index);
+
+    int compare(long key1, long key2) {
+        return Long.compare(key1, key2);
+    }
+
+    String toString(long key) {
+        return String.valueOf(key);
+    }
+}
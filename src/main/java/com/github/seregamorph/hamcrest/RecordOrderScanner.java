@@ -0,0 +1,77 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocation-free scanner of fixed-width record keys. Keeps the last key between {@link #scan} calls,
+ * so a large file can be verified window by window.
+ */
+final class RecordOrderScanner {
+
+    private final int recordSize;
+    private final int keyOffset;
+    private final RecordKeyType keyType;
+    private final ByteOrder byteOrder;
+    private final boolean allowEqual;
+
+    private long recordIndex;
+    private long previousKey;
+
+    RecordOrderScanner(int recordSize, int keyOffset, RecordKeyType keyType, ByteOrder byteOrder,
+                       boolean allowEqual) {
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("recordSize should be positive: " + recordSize);
+        }
+        if (keyOffset < 0 || keyOffset + keyType.getSize() > recordSize) {
+            throw new IllegalArgumentException("Key " + keyType + " at offset " + keyOffset
+                    + " does not fit the record of " + recordSize + " bytes");
+        }
+        this.recordSize = recordSize;
+        this.keyOffset = keyOffset;
+        this.keyType = keyType;
+        this.byteOrder = byteOrder;
+        this.allowEqual = allowEqual;
+    }
+
+    int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Scans complete records between position and limit of the buffer, the buffer state is not changed.
+     *
+     * @return true if the keys of all records scanned so far are ordered
+     */
+    boolean scan(ByteBuffer buffer, Description mismatchDescription) {
+        ByteBuffer view = buffer.duplicate().order(byteOrder);
+        int end = view.position() + (view.remaining() / recordSize) * recordSize;
+        for (int index = view.position(); index < end; index += recordSize, recordIndex++) {
+            long key = keyType.read(view, index + keyOffset);
+            if (recordIndex > 0) {
+                int result = keyType.compare(previousKey, key);
+                if (result == 0 && !allowEqual) {
+                    describe("equal", key, mismatchDescription);
+                    return false;
+                } else if (result > 0) {
+                    describe("unordered", key, mismatchDescription);
+                    return false;
+                }
+            }
+            previousKey = key;
+        }
+        return true;
+    }
+
+    private void describe(String violation, long key, Description mismatchDescription) {
+        mismatchDescription.appendText("Found " + violation + " keys " + keyType.toString(previousKey)
+                + " and " + keyType.toString(key) + " at record " + recordIndex
+                + " (offset " + recordIndex * recordSize + ")");
+    }
+
+    String describe() {
+        return recordSize + "-byte records by " + byteOrder + " " + keyType + " key at offset " + keyOffset;
+    }
+}
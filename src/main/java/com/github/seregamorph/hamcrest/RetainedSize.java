@@ -0,0 +1,101 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Retained size of an object graph: the sum of shallow sizes of all objects reachable from the root via reference
+ * fields and array elements, each object counted once (identity-based visited set). The walk is iterative, so deep
+ * graphs (e.g. long linked lists) do not overflow the stack. Excluded objects are neither counted nor traversed.
+ */
+final class RetainedSize {
+
+    private static final int REPORTED_CLASSES = 10;
+
+    private final Map<Class<?>, long[]> classStats = new HashMap<>();
+    private long totalBytes;
+    private long objectCount;
+    private long inaccessibleCount;
+    @Nullable
+    private String inaccessibleField;
+
+    static RetainedSize measure(Object root, Predicate<Object> excluded) {
+        RetainedSize retainedSize = new RetainedSize();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> stack = new ArrayDeque<>();
+        List<Object> references = new ArrayList<>();
+        visited.add(root);
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Object obj = stack.pop();
+            ObjectLayout.ClassLayout layout = ObjectLayout.of(obj.getClass());
+            retainedSize.add(obj.getClass(), layout.shallowSize(obj));
+            int inaccessibleCount = layout.collectReferences(obj, references);
+            if (inaccessibleCount > 0) {
+                retainedSize.inaccessibleCount += inaccessibleCount;
+                if (retainedSize.inaccessibleField == null) {
+                    retainedSize.inaccessibleField = layout.getInaccessibleField();
+                }
+            }
+            for (Object reference : references) {
+                if (visited.add(reference) && !excluded.test(reference)) {
+                    stack.push(reference);
+                }
+            }
+            references.clear();
+        }
+        return retainedSize;
+    }
+
+    private void add(Class<?> type, long shallowSize) {
+        long[] stats = classStats.computeIfAbsent(type, k -> new long[2]);
+        stats[0]++;
+        stats[1] += shallowSize;
+        objectCount++;
+        totalBytes += shallowSize;
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    long getObjectCount() {
+        return objectCount;
+    }
+
+    long getInaccessibleCount() {
+        return inaccessibleCount;
+    }
+
+    @Nullable
+    String getInaccessibleField() {
+        return inaccessibleField;
+    }
+
+    /**
+     * Renders the classes with the largest total shallow size of their instances, one class per line.
+     */
+    String toTable() {
+        List<Map.Entry<Class<?>, long[]>> entries = new ArrayList<>(classStats.entrySet());
+        entries.sort((e1, e2) -> Long.compare(e2.getValue()[1], e1.getValue()[1]));
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Class<?>, long[]> entry : entries.subList(0, Math.min(entries.size(), REPORTED_CLASSES))) {
+            sb.append(String.format(Locale.ROOT, "%n    %,15d bytes %,12d objects  %s",
+                    entry.getValue()[1], entry.getValue()[0], entry.getKey().getTypeName()));
+        }
+        if (entries.size() > REPORTED_CLASSES) {
+            sb.append(String.format(Locale.ROOT, "%n    ... %d more classes", entries.size() - REPORTED_CLASSES));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.seregamorph.hamcrest;
+
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collector of soft assertions: the failures are recorded and reported together by {@link #verify()} (or on
+ * {@link #close()}). Unlike JUnit <code>ErrorCollector</code>, the failure descriptions are not built when
+ * the assertion fails: only the failing matcher and the actual value are recorded, the descriptions (including
+ * lambda resolution of {@link MoreMatchers#where} and <code>toString</code> of the values) are rendered when the
+ * report is produced, for the first <code>maxRendered</code> distinct expectations only. The failures with the same
+ * expected description are reported once with the number of repetitions. E.g.
+ * <pre>
+ * try (SoftAssertions softly = new SoftAssertions()) {
+ *     for (Item item : items) {
+ *         softly.checkThat(item, where(Item::getPrice, greaterThan(ZERO)));
+ *     }
+ * }
+ * </pre>
+ * The expected description is rendered once per matcher instance, so a matcher created per check (as above) is
+ * described for each failure until <code>maxRendered</code> distinct expectations are found; reuse the matcher
+ * instance to render it once. The mismatch is described by calling the matcher again after all checks: the matchers
+ * that execute code (e.g. {@link PerformanceMatchers}, {@link ConcurrencyMatchers}) may execute it once more if
+ * the same instance has been matched with another value since.
+ * <p>
+ * The collector is thread-safe.
+ *
+ * @author seregamorph
+ */
+public class SoftAssertions implements AutoCloseable {
+
+    static final int DEFAULT_MAX_RENDERED = 10;
+
+    private final int maxRendered;
+    private final List<Failure> failures = new ArrayList<>();
+
+    /**
+     * Collector that renders at most {@value #DEFAULT_MAX_RENDERED} distinct failures.
+     */
+    public SoftAssertions() {
+        this(DEFAULT_MAX_RENDERED);
+    }
+
+    /**
+     * @param maxRendered max number of distinct failures rendered in full
+     */
+    public SoftAssertions(int maxRendered) {
+        if (maxRendered <= 0) {
+            throw new IllegalArgumentException("maxRendered should be positive: " + maxRendered);
+        }
+        this.maxRendered = maxRendered;
+    }
+
+    /**
+     * Matches the value and records the failure, if any.
+     *
+     * @param actual  value to match
+     * @param matcher matcher
+     * @return whether the value matches
+     */
+    public <T> boolean checkThat(T actual, Matcher<? super T> matcher) {
+        return checkThat(null, actual, matcher);
+    }
+
+    /**
+     * Matches the value and records the failure, if any.
+     *
+     * @param reason  reason reported with the failure, may be null
+     * @param actual  value to match
+     * @param matcher matcher
+     * @return whether the value matches
+     */
+    public <T> boolean checkThat(@Nullable String reason, T actual, Matcher<? super T> matcher) {
+        if (matcher.matches(actual)) {
+            return true;
+        }
+        synchronized (failures) {
+            failures.add(new Failure(reason, actual, matcher));
+        }
+        return false;
+    }
+
+    /**
+     * @return number of recorded failures
+     */
+    public int getFailureCount() {
+        synchronized (failures) {
+            return failures.size();
+        }
+    }
+
+    /**
+     * Reports the recorded failures and clears them.
+     *
+     * @throws AssertionError if there are failures
+     */
+    public void verify() {
+        List<Failure> failures;
+        synchronized (this.failures) {
+            if (this.failures.isEmpty()) {
+                return;
+            }
+            failures = new ArrayList<>(this.failures);
+            this.failures.clear();
+        }
+        throw new AssertionError(render(failures));
+    }
+
+    /**
+     * Same as {@link #verify()}.
+     */
+    @Override
+    public void close() {
+        verify();
+    }
+
+    /**
+     * Renders the failures in the order of recording. The expected description is rendered for each failure
+     * until <code>maxRendered</code> distinct ones are found (once per matcher instance), the mismatch is rendered
+     * for the first failure of each distinct expectation only.
+     */
+    private String render(List<Failure> failures) {
+        Map<Matcher<?>, String> expectedByMatcher = new IdentityHashMap<>();
+        Map<String, RenderedFailure> rendered = new LinkedHashMap<>();
+        int index = 0;
+        while (index < failures.size()) {
+            Failure failure = failures.get(index);
+            String expected = expectedByMatcher.computeIfAbsent(failure.matcher, StringDescription::toString);
+            // the same matcher with different reasons is reported separately
+            String key = failure.reason + "\n" + expected;
+            RenderedFailure renderedFailure = rendered.get(key);
+            if (renderedFailure != null) {
+                renderedFailure.repetitions++;
+            } else if (rendered.size() < maxRendered) {
+                rendered.put(key, new RenderedFailure(failure, expected));
+            } else {
+                break;
+            }
+            index++;
+        }
+
+        StringBuilder sb = new StringBuilder()
+                .append(failures.size())
+                .append(failures.size() == 1 ? " soft assertion failure" : " soft assertion failures");
+        int number = 1;
+        for (RenderedFailure renderedFailure : rendered.values()) {
+            Failure failure = renderedFailure.failure;
+            sb.append("\n\n").append(number++).append(") ");
+            if (failure.reason != null) {
+                sb.append(failure.reason);
+            }
+            sb.append("\nExpected: ").append(renderedFailure.expected)
+                    .append("\n     but: ").append(failure.describeMismatch());
+            if (renderedFailure.repetitions > 0) {
+                sb.append("\n(and ").append(pluralFailures(renderedFailure.repetitions))
+                        .append(" with the same expectation)");
+            }
+        }
+        int notRendered = failures.size() - index;
+        if (notRendered > 0) {
+            sb.append("\n\n... and ").append(pluralFailures(notRendered)).append(" not rendered");
+        }
+        return sb.toString();
+    }
+
+    private static String pluralFailures(int count) {
+        return count + (count == 1 ? " more failure" : " more failures");
+    }
+
+    private static final class Failure {
+
+        @Nullable
+        private final String reason;
+        private final Object actual;
+        private final Matcher<?> matcher;
+
+        private Failure(@Nullable String reason, Object actual, Matcher<?> matcher) {
+            this.reason = reason;
+            this.actual = actual;
+            this.matcher = matcher;
+        }
+
+        String describeMismatch() {
+            Description description = new StringDescription();
+            matcher.describeMismatch(actual, description);
+            return description.toString();
+        }
+    }
+
+    private static final class RenderedFailure {
+
+        private final Failure failure;
+        private final String expected;
+        private int repetitions;
+
+        private RenderedFailure(Failure failure, String expected) {
+            this.failure = failure;
+            this.expected = expected;
+        }
+    }
+}
@@ -13,7 +13,7 @@ public class StringMatchers {
      * @param pattern
      */
     public static Matcher<String> matches(Pattern pattern) {
-        return new TypeSafeDiagnosingMatcher<String>() {
+        return MatcherMetrics.instrumented("StringMatchers.matches", new TypeSafeDiagnosingMatcher<String>() {
 
             @Override
             protected boolean matchesSafely(String value, Description mismatchDescription) {
@@ -26,7 +26,7 @@ public class StringMatchers {
             public void describeTo(Description description) {
                 description.appendText("to match " + pattern);
             }
-        };
+        });
     }
 
     /**
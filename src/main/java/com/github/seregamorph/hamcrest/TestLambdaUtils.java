@@ -1,11 +1,13 @@
 package com.github.seregamorph.hamcrest;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.invoke.MethodHandleInfo;
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +21,11 @@ import java.util.stream.Stream;
  */
 public class TestLambdaUtils {
 
+    /**
+     * Running as GraalVM native image: there is no reflective access to lambda classes and no class files.
+     */
+    static final boolean NATIVE_IMAGE = System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+
     /**
      * Runtime lambda resolver. If the Function is a simple lambda method reference
      * (e.g. `UserPojo::getName`), it returns the method itself (`UserPojo.getName()`).
@@ -43,8 +50,9 @@ public class TestLambdaUtils {
         if (serializedLambda != null
                 && (serializedLambda.getImplMethodKind() == MethodHandleInfo.REF_invokeVirtual
                 || serializedLambda.getImplMethodKind() == MethodHandleInfo.REF_invokeStatic)) {
-            Class<?> cls = implClassForName(serializedLambda.getImplClass());
-            Class<?>[] argumentClasses = parseArgumentClasses(serializedLambda.getImplMethodSignature());
+            ClassLoader loader = lambda.getClass().getClassLoader();
+            Class<?> cls = implClassForName(serializedLambda.getImplClass(), loader);
+            Class<?>[] argumentClasses = parseArgumentClasses(serializedLambda.getImplMethodSignature(), loader);
             return Stream.of(cls.getDeclaredMethods())
                     .filter(method -> method.getName().equals(serializedLambda.getImplMethodName())
                             && Arrays.equals(method.getParameterTypes(), argumentClasses))
@@ -58,8 +66,9 @@ public class TestLambdaUtils {
         SerializedLambda serializedLambda = getSerializedLambda(lambda);
         if (serializedLambda != null
                 && (serializedLambda.getImplMethodKind() == MethodHandleInfo.REF_newInvokeSpecial)) {
-            Class<?> cls = implClassForName(serializedLambda.getImplClass());
-            Class<?>[] argumentClasses = parseArgumentClasses(serializedLambda.getImplMethodSignature());
+            ClassLoader loader = lambda.getClass().getClassLoader();
+            Class<?> cls = implClassForName(serializedLambda.getImplClass(), loader);
+            Class<?>[] argumentClasses = parseArgumentClasses(serializedLambda.getImplMethodSignature(), loader);
             return Stream.of(cls.getDeclaredConstructors())
                     .filter(constructor -> Arrays.equals(constructor.getParameterTypes(), argumentClasses))
                     .findFirst().orElse(null);
@@ -75,6 +84,13 @@ public class TestLambdaUtils {
      * @return array of parsed classes
      */
     static Class<?>[] parseArgumentClasses(String implMethodSignature) {
+        return parseArgumentClasses(implMethodSignature, TestLambdaUtils.class.getClassLoader());
+    }
+
+    /**
+     * Parses impl method signature resolving the classes via the class loader of the lambda.
+     */
+    static Class<?>[] parseArgumentClasses(String implMethodSignature, @Nullable ClassLoader loader) {
         int parenthesesPos = implMethodSignature.indexOf(')');
         if (!implMethodSignature.startsWith("(") || parenthesesPos <= 0) {
             throw new IllegalStateException("Wrong format of implMethodSignature " + implMethodSignature);
@@ -85,12 +101,12 @@ public class TestLambdaUtils {
             if (token.isEmpty()) {
                 continue;
             }
-            classes.add(parseType(token, false));
+            classes.add(parseType(token, false, loader));
         }
         return classes.toArray(new Class[0]);
     }
 
-    private static Class<?> parseType(String typeName, boolean allowVoid) {
+    private static Class<?> parseType(String typeName, boolean allowVoid, @Nullable ClassLoader loader) {
         if ("Z".equals(typeName)) {
             return boolean.class;
         } else if ("B".equals(typeName)) {
@@ -119,39 +135,73 @@ public class TestLambdaUtils {
                         + "(should start with 'L'): " + typeName);
             }
             String implClassName = typeName.substring(1);
-            return implClassForName(implClassName);
+            return implClassForName(implClassName, loader);
         }
     }
 
     @Nullable
-    private static SerializedLambda getSerializedLambda(Serializable lambda) {
-        for (Class<?> cl = lambda.getClass(); cl != null; cl = cl.getSuperclass()) {
-            try {
-                Method m = cl.getDeclaredMethod("writeReplace");
-                m.setAccessible(true);
-                Object replacement = m.invoke(lambda);
-                if (!(replacement instanceof SerializedLambda)) {
-                    break;
-                }
-                return (SerializedLambda) replacement;
-            } catch (NoSuchMethodException e) {
-                // skip, continue
-            } catch (IllegalAccessException | InvocationTargetException | SecurityException e) {
-                throw new IllegalStateException("Failed to call writeReplace", e);
-            }
+    static SerializedLambda getSerializedLambda(Serializable lambda) {
+        return NATIVE_IMAGE ? captureSerializedLambda(lambda) : Platform.getSerializedLambda(lambda);
+    }
+
+    /**
+     * Gets the serialized form via the serialization itself, which calls <code>writeReplace</code> without
+     * reflection. Works in native image for the lambdas of the classes registered for serialization
+     * (see {@link NativeImageFeature}).
+     */
+    @Nullable
+    static SerializedLambda captureSerializedLambda(Serializable lambda) {
+        try (SerializedLambdaCapture capture = new SerializedLambdaCapture()) {
+            capture.writeObject(lambda);
+            return capture.serializedLambda;
+        } catch (IOException | RuntimeException e) {
+            // not registered for serialization
+            return null;
         }
-        return null;
     }
 
-    private static Class<?> implClassForName(String implClassName) {
+    /**
+     * Resolves the class via the class loader of the lambda (not of this library), so the classes of isolated
+     * class loaders are resolved and not initialized.
+     */
+    private static Class<?> implClassForName(String implClassName, @Nullable ClassLoader loader) {
         String className = implClassName.replace('/', '.');
         try {
-            return Class.forName(className);
+            return Class.forName(className, false, loader);
         } catch (ClassNotFoundException e) {
             throw new IllegalStateException("Failed to load class " + implClassName, e);
         }
     }
 
+    private static final class SerializedLambdaCapture extends ObjectOutputStream {
+
+        @Nullable
+        private SerializedLambda serializedLambda;
+
+        private SerializedLambdaCapture() throws IOException {
+            super(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            });
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (serializedLambda == null && obj instanceof SerializedLambda) {
+                serializedLambda = (SerializedLambda) obj;
+                // captured arguments are not serialized
+                return null;
+            }
+            return obj;
+        }
+    }
+
     private TestLambdaUtils() {
     }
 
@@ -0,0 +1,63 @@
+package com.github.seregamorph.hamcrest;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Per-thread allocated bytes counter of HotSpot compatible JVMs ({@link com.sun.management.ThreadMXBean}).
+ */
+final class ThreadAllocation {
+
+    private static final boolean SUPPORTED = checkSupported();
+
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far or -1 if not supported by the running JVM
+     */
+    static long currentThreadAllocatedBytes() {
+        return SUPPORTED ? SunThreadMXBean.currentThreadAllocatedBytes() : -1L;
+    }
+
+    private static boolean checkSupported() {
+        try {
+            return SunThreadMXBean.enable();
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // NoClassDefFoundError (not a HotSpot compatible JVM)
+            return false;
+        }
+    }
+
+    /**
+     * Isolates the references to com.sun.management, so the outer class can be loaded on any JVM.
+     */
+    private static final class SunThreadMXBean {
+
+        private static com.sun.management.ThreadMXBean bean;
+
+        static boolean enable() {
+            java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+                return false;
+            }
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (!sunBean.isThreadAllocatedMemorySupported()) {
+                return false;
+            }
+            if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            bean = sunBean;
+            return true;
+        }
+
+        @SuppressWarnings("deprecation")
+        static long currentThreadAllocatedBytes() {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    private ThreadAllocation() {
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.seregamorph.hamcrest;
+
+import java.io.Serializable;
+
+/**
+ * Note: it is intended that this functional interface extends Serializable.
+ *
+ * @see TestLambdaUtils#unreferenceLambdaMethod(Serializable)
+ */
+@FunctionalInterface
+public interface ThrowingRunnable extends Serializable {
+
+    void run() throws Exception;
+}
@@ -0,0 +1,107 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * Java 17 version of the platform access: <code>writeReplace</code> of the lambda class is resolved once via
+ * private lookup and cached per class, so no reflective lookup and access check is done per call.
+ */
+final class Platform {
+
+    private static final MethodType WRITE_REPLACE_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * The values reference only the lambda class itself, so they do not prevent unloading of the test classes.
+     */
+    private static final ClassValue<Optional<MethodHandle>> WRITE_REPLACE = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return Optional.ofNullable(findWriteReplace(type));
+        }
+    };
+
+    @Nullable
+    private static final Method START_VIRTUAL_THREAD = findStartVirtualThread();
+
+    /**
+     * Set when the method exists, but virtual threads are a disabled preview feature (Java 19-20).
+     */
+    private static volatile boolean virtualThreadsUnsupported;
+
+    /**
+     * Starts a virtual thread (Java 21+).
+     *
+     * @return started thread or null if virtual threads are not supported by the running JVM
+     */
+    @Nullable
+    static Thread startVirtualThread(Runnable task) {
+        if (START_VIRTUAL_THREAD == null || virtualThreadsUnsupported) {
+            return null;
+        }
+        try {
+            return (Thread) START_VIRTUAL_THREAD.invoke(null, task);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to start virtual thread", e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException) {
+                // Java 19-20 without --enable-preview
+                virtualThreadsUnsupported = true;
+                return null;
+            }
+            throw new IllegalStateException("Failed to start virtual thread", e.getCause());
+        }
+    }
+
+    /**
+     * Calls synthetic <code>writeReplace</code> method of serializable lambda.
+     *
+     * @return serialized form or null if the object is not a lambda
+     */
+    @Nullable
+    static SerializedLambda getSerializedLambda(Serializable lambda) {
+        MethodHandle writeReplace = WRITE_REPLACE.get(lambda.getClass()).orElse(null);
+        if (writeReplace == null) {
+            return null;
+        }
+        try {
+            return writeReplace.invoke(lambda) instanceof SerializedLambda serializedLambda ? serializedLambda : null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to call writeReplace", e);
+        }
+    }
+
+    @Nullable
+    private static MethodHandle findWriteReplace(Class<?> type) {
+        for (Class<?> cl = type; cl != null; cl = cl.getSuperclass()) {
+            try {
+                return MethodHandles.privateLookupIn(cl, MethodHandles.lookup())
+                        .findVirtual(cl, "writeReplace", WRITE_REPLACE_TYPE);
+            } catch (NoSuchMethodException e) {
+                // skip, continue
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to access writeReplace of " + cl, e);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Method findStartVirtualThread() {
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private Platform() {
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.seregamorph.hamcrest;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.util.Optional;
+
+/**
+ * Java 21 version of the platform access: same as the Java 17 one, virtual threads are started directly.
+ */
+final class Platform {
+
+    private static final MethodType WRITE_REPLACE_TYPE = MethodType.methodType(Object.class);
+
+    /**
+     * The values reference only the lambda class itself, so they do not prevent unloading of the test classes.
+     */
+    private static final ClassValue<Optional<MethodHandle>> WRITE_REPLACE = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            return Optional.ofNullable(findWriteReplace(type));
+        }
+    };
+
+    /**
+     * Starts a virtual thread.
+     *
+     * @return started thread
+     */
+    static Thread startVirtualThread(Runnable task) {
+        return Thread.startVirtualThread(task);
+    }
+
+    /**
+     * Calls synthetic <code>writeReplace</code> method of serializable lambda.
+     *
+     * @return serialized form or null if the object is not a lambda
+     */
+    @Nullable
+    static SerializedLambda getSerializedLambda(Serializable lambda) {
+        MethodHandle writeReplace = WRITE_REPLACE.get(lambda.getClass()).orElse(null);
+        if (writeReplace == null) {
+            return null;
+        }
+        try {
+            return writeReplace.invoke(lambda) instanceof SerializedLambda serializedLambda ? serializedLambda : null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to call writeReplace", e);
+        }
+    }
+
+    @Nullable
+    private static MethodHandle findWriteReplace(Class<?> type) {
+        for (Class<?> cl = type; cl != null; cl = cl.getSuperclass()) {
+            try {
+                return MethodHandles.privateLookupIn(cl, MethodHandles.lookup())
+                        .findVirtual(cl, "writeReplace", WRITE_REPLACE_TYPE);
+            } catch (NoSuchMethodException e) {
+                // skip, continue
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to access writeReplace of " + cl, e);
+            }
+        }
+        return null;
+    }
+
+    private Platform() {
+    }
+}
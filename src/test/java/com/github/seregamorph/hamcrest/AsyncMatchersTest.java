@@ -0,0 +1,138 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.AsyncMatchers.completesExceptionally;
+import static com.github.seregamorph.hamcrest.AsyncMatchers.completesWith;
+import static com.github.seregamorph.hamcrest.AsyncMatchers.eventually;
+import static com.github.seregamorph.hamcrest.AsyncMatchers.eventuallyAsync;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class AsyncMatchersTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void eventuallyShouldReturnFirstMatchingValue() {
+        var counter = new AtomicInteger();
+
+        int value = eventually(counter::incrementAndGet, greaterThan(3), Duration.ofSeconds(10));
+
+        collector.checkThat(value, is(4));
+    }
+
+    @Test
+    public void eventuallyShouldReturnAsSoonAsMatches() {
+        long start = System.nanoTime();
+
+        eventually(() -> "value", equalTo("value"), Duration.ofSeconds(10));
+
+        collector.checkThat(System.nanoTime() - start, lessThan(TimeUnit.SECONDS.toNanos(5)));
+    }
+
+    @Test
+    public void eventuallyShouldRetryExceptions() {
+        var counter = new AtomicInteger();
+
+        int value = eventually(() -> {
+            if (counter.incrementAndGet() < 3) {
+                throw new IllegalStateException("not ready");
+            }
+            return counter.get();
+        }, equalTo(3), Duration.ofSeconds(10));
+
+        collector.checkThat(value, is(3));
+    }
+
+    @Test
+    public void eventuallyShouldReportLastMismatchOnTimeout() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                startsWith("\nExpected: <2> after call AsyncMatchersTest.java:"),
+                containsString(" within PT0.05S\n     but: was <1> (after ")
+        ));
+
+        eventually(() -> 1, equalTo(2), Duration.ofMillis(50));
+    }
+
+    @Test
+    public void eventuallyShouldReportLastException() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("but: threw java.lang.IllegalStateException: not ready");
+
+        eventually(() -> {
+            throw new IllegalStateException("not ready");
+        }, equalTo(2), Duration.ofMillis(50));
+    }
+
+    @Test
+    public void eventuallyAsyncShouldCompleteExceptionallyOnTimeout() throws InterruptedException {
+        CompletableFuture<Integer> future = eventuallyAsync(() -> 1, equalTo(2), Duration.ofMillis(20));
+
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            collector.checkThat(e.getCause(), instanceOf(AssertionError.class));
+        }
+        collector.checkThat(future.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void completesWithShouldMatchResult() {
+        var future = new CompletableFuture<String>();
+        CompletableFuture.runAsync(() -> future.complete("done"));
+
+        collector.checkThat(future, completesWith(equalTo("done"), Duration.ofSeconds(10)));
+        collector.checkThat(future, not(completesWith(equalTo("other"), Duration.ofSeconds(10))));
+        collector.checkThat(future, not(completesExceptionally(instanceOf(Exception.class), Duration.ofSeconds(10))));
+    }
+
+    @Test
+    public void completesWithShouldReportTimeout() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: Future completed within PT0.01S with \"done\"\n"
+                + "     but: was not completed within PT0.01S");
+
+        collector.checkThat(new CompletableFuture<String>(), completesWith(equalTo("done"), Duration.ofMillis(10)));
+    }
+
+    @Test
+    public void completesExceptionallyShouldMatchCause() {
+        var future = new CompletableFuture<String>();
+        future.completeExceptionally(new IllegalStateException("failed"));
+
+        collector.checkThat(future, completesExceptionally(instanceOf(IllegalStateException.class),
+                Duration.ofSeconds(1)));
+        collector.checkThat(future, not(completesWith(equalTo("done"), Duration.ofSeconds(1))));
+    }
+
+    @Test
+    public void completesWithShouldReportException() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("but: completed exceptionally with java.lang.IllegalStateException: failed");
+
+        var future = new CompletableFuture<String>();
+        future.completeExceptionally(new IllegalStateException("failed"));
+        collector.checkThat(future, completesWith(equalTo("done"), Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.ConcurrencyMatchers.afterConcurrentLoad;
+import static com.github.seregamorph.hamcrest.DistinctMatchers.hasNoDuplicates;
+import static com.github.seregamorph.hamcrest.MoreMatchers.where;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anything;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class ConcurrencyMatchersTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldMatchStateAfterLoad() {
+        assertThat(new AtomicLong(), afterConcurrentLoad(ConcurrentLoad.threads(8).iterations(10_000),
+                AtomicLong::incrementAndGet, where(AtomicLong::get, equalTo(80_000L))));
+    }
+
+    @Test
+    public void shouldDescribeStateMismatchWithThroughput() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: state Object that matches <1L> after call AtomicLong.get after "
+                        + "concurrent load of 4 platform threads x 100 iterations calling AtomicLong.incrementAndGet"),
+                containsString("but: state was <400L>, 400 operations"),
+                containsString("400 operations on 4 platform threads in "),
+                containsString("ops/s per thread")
+        ));
+
+        assertThat(new AtomicLong(), afterConcurrentLoad(ConcurrentLoad.threads(4).iterations(100),
+                AtomicLong::incrementAndGet, where(AtomicLong::get, equalTo(1L))));
+    }
+
+    @Test
+    public void shouldMatchResults() {
+        assertThat(new AtomicInteger(), afterConcurrentLoad(ConcurrentLoad.threads(8).iterations(1_000),
+                AtomicInteger::incrementAndGet, where(AtomicInteger::get, equalTo(8_000)), hasNoDuplicates()));
+    }
+
+    @Test
+    public void shouldDescribeResultsMismatch() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: state ANYTHING and results Has no duplicates after concurrent load"),
+                containsString("but: results Found duplicate elements 1 at index 0 and 1 at index 1, 20 operations")
+        ));
+
+        assertThat(new AtomicInteger(), afterConcurrentLoad(ConcurrentLoad.threads(2).iterations(10),
+                counter -> 1, anything(), hasNoDuplicates()));
+    }
+
+    @Test
+    public void shouldReportExceptions() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("but: threw 3 exception(s), "),
+                containsString("at iteration 5: java.lang.IllegalStateException: overflow")
+        ));
+
+        var threadCounters = new ConcurrentHashMap<Thread, AtomicInteger>();
+        assertThat(threadCounters, afterConcurrentLoad(ConcurrentLoad.threads(3).iterations(10), counters -> {
+            if (counters.computeIfAbsent(Thread.currentThread(), t -> new AtomicInteger()).incrementAndGet() > 5) {
+                throw new IllegalStateException("overflow");
+            }
+            return null;
+        }, anything()));
+    }
+
+    @Test
+    public void shouldReportErrors() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("but: threw 2 exception(s), "),
+                containsString("at iteration 0: java.lang.AssertionError: broken")
+        ));
+
+        assertThat(new Object(), afterConcurrentLoad(ConcurrentLoad.threads(2).iterations(10), state -> {
+            throw new AssertionError("broken");
+        }, anything()));
+    }
+
+    @Test
+    public void shouldRestoreInterruptFlag() {
+        var matcher = afterConcurrentLoad(ConcurrentLoad.threads(2).iterations(10), state -> null, anything());
+        Thread.currentThread().interrupt();
+        AssertionError error = null;
+        try {
+            matcher.matches(new Object());
+        } catch (AssertionError e) {
+            error = e;
+        }
+        collector.checkThat(Thread.interrupted(), is(true));
+        collector.checkThat(error == null ? null : error.getCause(), instanceOf(InterruptedException.class));
+    }
+
+    @Test
+    public void shouldRunForDuration() {
+        var counter = new AtomicLong();
+
+        assertThat(counter, afterConcurrentLoad(ConcurrentLoad.threads(2).duration(Duration.ofMillis(50)),
+                AtomicLong::incrementAndGet, where(AtomicLong::get, greaterThan(0L))));
+    }
+
+    @Test
+    public void shouldRunOnVirtualThreadsIfSupported() {
+        var threads = ConcurrentHashMap.<Thread>newKeySet();
+
+        assertThat(threads, afterConcurrentLoad(ConcurrentLoad.threads(16).iterations(10).virtualThreads(),
+                set -> set.add(Thread.currentThread()), where(Object::toString, anything())));
+
+        collector.checkThat(threads, hasSize(16));
+    }
+
+    @Test
+    public void shouldDescribeLoad() {
+        collector.checkThat(ConcurrentLoad.threads(8).toString(), is("8 platform threads x 1000 iterations"));
+        collector.checkThat(ConcurrentLoad.threads(8).iterations(5).virtualThreads().toString(),
+                is("8 virtual threads x 5 iterations"));
+        collector.checkThat(ConcurrentLoad.threads(2).duration(Duration.ofSeconds(1)).toString(),
+                is("2 platform threads for PT1S"));
+    }
+
+    @Test
+    public void shouldValidateThreads() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("threads should be positive: 0");
+
+        ConcurrentLoad.threads(0);
+    }
+}
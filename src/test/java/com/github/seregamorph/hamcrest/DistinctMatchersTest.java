@@ -0,0 +1,131 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.DistinctMatchers.hasNoDuplicates;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class DistinctMatchersTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void emptyShouldSuccess() {
+        collector.checkThat(Collections.<Integer>emptyList(), hasNoDuplicates());
+    }
+
+    @Test
+    public void sortedShouldSuccess() {
+        collector.checkThat(Arrays.asList(1, 2, 3), hasNoDuplicates());
+        collector.checkThat(Arrays.asList("a", "b", "c"), hasNoDuplicates());
+    }
+
+    @Test
+    public void unsortedShouldSuccess() {
+        collector.checkThat(Arrays.asList(3, 1, 2), hasNoDuplicates());
+        collector.checkThat(Arrays.asList(3L, 0L, 2L), hasNoDuplicates());
+        collector.checkThat(Arrays.asList("b", "a", null), hasNoDuplicates());
+    }
+
+    @Test
+    public void differentTypesShouldNotBeDuplicates() {
+        collector.checkThat(Arrays.<Object>asList(1, 1L, "1", null), hasNoDuplicates());
+    }
+
+    @Test
+    public void duplicatesShouldFail() {
+        collector.checkThat(Arrays.asList(1, 2, 2), not(hasNoDuplicates()));
+        collector.checkThat(Arrays.asList(0, 5, 0), not(hasNoDuplicates()));
+        collector.checkThat(Arrays.asList(7L, 0L, 7L), not(hasNoDuplicates()));
+        collector.checkThat(Arrays.asList(null, "a", null), not(hasNoDuplicates()));
+    }
+
+    @Test
+    public void largeIntsShouldSuccess() {
+        List<Integer> list = IntStream.range(0, 100_000)
+                .map(i -> i * 31 % 100_000)
+                .boxed()
+                .collect(Collectors.toList());
+
+        collector.checkThat(list, hasNoDuplicates());
+        list.add(99_999);
+        collector.checkThat(list, not(hasNoDuplicates()));
+    }
+
+    @Test
+    public void largeLongsShouldSuccess() {
+        List<Long> list = LongStream.range(0, 100_000)
+                .map(i -> -i * 1_000_000_007L)
+                .boxed()
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        collector.checkThat(list, hasNoDuplicates());
+        list.add(-1_000_000_007L);
+        collector.checkThat(list, not(hasNoDuplicates()));
+    }
+
+    @Test
+    public void duplicateShouldReportIndices() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Found duplicate elements 2 at index 1 and 2 at index 3");
+
+        collector.checkThat(Arrays.asList(3, 2, 1, 2), hasNoDuplicates());
+    }
+
+    @Test
+    public void sortedDuplicateShouldReportIndices() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Found duplicate elements 2 at index 1 and 2 at index 2");
+
+        collector.checkThat(Arrays.asList(1, 2, 2, 3), hasNoDuplicates());
+    }
+
+    @Test
+    public void duplicateKeyShouldReportElements() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: Has no duplicates by String.length\n"
+                + "     but: Found duplicate elements ab at index 0 and cd at index 2");
+
+        collector.checkThat(Arrays.asList("ab", "a", "cd"), hasNoDuplicates(String::length));
+    }
+
+    @Test
+    public void singleUseIterableShouldBeIteratedOnce() {
+        var keyCalls = new AtomicInteger();
+        Iterable<String> items = Stream.of("a", "bb", "ccc", "dd")::iterator;
+
+        collector.checkThat(items, not(hasNoDuplicates(item -> {
+            keyCalls.incrementAndGet();
+            return item.length();
+        })));
+        collector.checkThat(keyCalls.get(), is(4));
+    }
+
+    @Test
+    public void duplicateOfNonListShouldReportKey() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Found duplicate elements element with key 2 at index 1 and dd at index 3");
+
+        Set<String> items = new LinkedHashSet<>(List.of("a", "bb", "ccc", "dd"));
+        collector.checkThat(items, hasNoDuplicates(String::length));
+    }
+}
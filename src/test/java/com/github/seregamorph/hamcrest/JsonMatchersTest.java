@@ -0,0 +1,181 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.JsonMatchers.everyJsonArrayItem;
+import static com.github.seregamorph.hamcrest.JsonMatchers.softOrderedJsonArray;
+import static com.github.seregamorph.hamcrest.JsonMatchers.strictOrderedJsonArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class JsonMatchersTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldMatchOrderedArray() {
+        var json = "[{\"id\": 1, \"name\": \"a\"}, {\"name\": \"b\", \"id\": 2}, "
+                + "{\"id\": 2.5, \"name\": \"c\", \"tags\": [{\"id\": 0}]}]";
+
+        collector.checkThat(json, strictOrderedJsonArray("$[*].id"));
+        collector.checkThat(json.getBytes(StandardCharsets.UTF_8), strictOrderedJsonArray("$[*].name"));
+        collector.checkThat("[]", strictOrderedJsonArray("$[*].id"));
+        collector.checkThat("[3, 3, 4]", not(strictOrderedJsonArray("$[*]")));
+        collector.checkThat("[3, 3, 4]", softOrderedJsonArray("$[*]"));
+        collector.checkThat("[\"a\", \"b\\u00e9\", \"c\"]", strictOrderedJsonArray("$[*]"));
+        collector.checkThat("{\"total\": 2, \"page\": {\"items\": [{\"meta\": {\"id\": -1e3}}, "
+                + "{\"meta\": {\"id\": 0}}]}}", strictOrderedJsonArray("$.page.items[*].meta.id"));
+    }
+
+    @Test
+    public void shouldDescribeUnorderedItems() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: JSON $[*].id strictly ordered\n"
+                + "     but: Found unordered elements 3 and 2 at index 1 and 2");
+
+        assertThat("[{\"id\": 1}, {\"id\": 3}, {\"id\": 2}, {\"id\": 4}]", strictOrderedJsonArray("$[*].id"));
+    }
+
+    @Test
+    public void shouldMatchEveryItem() {
+        var json = "[{\"price\": 1.5}, {\"price\": 2.25}]";
+
+        collector.checkThat(json, everyJsonArrayItem("$[*].price", greaterThan(BigDecimal.ONE)));
+        collector.checkThat(describeMismatch(everyJsonArrayItem("$[*].price", equalTo(2L)), json),
+                equalTo("an item at index 0 was <1.5>"));
+    }
+
+    @Test
+    public void shouldReadInputStreamInOnePass() {
+        var stream = new CountingInputStream(largeArray(100_000));
+        var matcher = strictOrderedJsonArray("$[*].id");
+
+        collector.checkThat(matcher.matches(stream), equalTo(true));
+        collector.checkThat(stream.reads > 1, equalTo(true));
+
+        var unordered = new ByteArrayInputStream("[{\"id\": 2}, {\"id\": 1}]".getBytes(StandardCharsets.UTF_8));
+        // the mismatch is described by the same scan, the stream is not read again
+        collector.checkThat(describeMismatch(matcher, unordered),
+                equalTo("Found unordered elements 2 and 1 at index 0 and 1"));
+    }
+
+    @Test
+    public void shouldDescribeStructureMismatch() {
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$.items[*].id"), "{\"total\": 0}"),
+                equalTo("$.items was not found"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$.items[*].id"), "{\"items\": {}}"),
+                equalTo("$.items is not an array"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*].id"), "[{\"id\": 1}, {\"name\": 2}]"),
+                equalTo("an item at index 1 has no id"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*]"), "[1, [2]]"),
+                equalTo("an item at index 1 is not a scalar"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*]"), "[1, \"2\"]"),
+                equalTo("Found incomparable elements 1 and 2 at index 0 and 1"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*].id"), new StringBuilder("[]")),
+                equalTo("was java.lang.StringBuilder, expected byte[], InputStream or String"));
+    }
+
+    @Test
+    public void shouldDescribeMalformedJson() {
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*].id"), "[{\"id\": 1} {\"id\": 2}]"),
+                equalTo("was invalid JSON: expected ',' or ']' at offset 11"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*].id"), "[{\"id\": 01}]"),
+                startsWith("was invalid JSON: "));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*].id"), "[{\"id\": 1}"),
+                equalTo("was invalid JSON: unexpected end of input at offset 9"));
+        collector.checkThat(describeMismatch(strictOrderedJsonArray("$[*]"), "[1, tru]"),
+                startsWith("was invalid JSON: invalid literal"));
+    }
+
+    @Test
+    public void shouldRejectInvalidPath() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Expected path with a single array wildcard like $.items[*].id, got $.id");
+
+        strictOrderedJsonArray("$.id");
+    }
+
+    @Test
+    public void parserShouldDecodeValues() throws IOException {
+        var parser = new JsonPullParser(new ByteArrayInputStream(
+                "[\"a\\\"\\n\\u0416\\ud83d\\ude00\", 12, -3.5, 1e2, 12345678901234567890, true, false, null]"
+                        .getBytes(StandardCharsets.UTF_8)));
+
+        collector.checkThat(parser.next(), equalTo(JsonPullParser.Token.START_ARRAY));
+        collector.checkThat(nextValue(parser), equalTo("a\"\nЖ😀"));
+        collector.checkThat(nextValue(parser), equalTo(12L));
+        collector.checkThat(nextValue(parser), equalTo(new BigDecimal("-3.5")));
+        collector.checkThat(nextValue(parser), equalTo(100L));
+        collector.checkThat(nextValue(parser), equalTo(new BigDecimal("12345678901234567890")));
+        collector.checkThat(nextValue(parser), equalTo(true));
+        collector.checkThat(nextValue(parser), equalTo(false));
+        collector.checkThat(nextValue(parser), equalTo(null));
+        collector.checkThat(parser.next(), equalTo(JsonPullParser.Token.END_ARRAY));
+        collector.checkThat(parser.next(), equalTo(JsonPullParser.Token.END));
+    }
+
+    @Test
+    public void shouldNotRetainMatchedBody() {
+        var matcher = strictOrderedJsonArray("$[*].id");
+        var body = largeArray(50_000);
+
+        collector.checkThat(body, matcher);
+        collector.checkThat(matcher, MemoryMatchers.retainsAtMost(16 * 1024));
+        var unordered = new String(body, StandardCharsets.UTF_8).replace("\"id\":7,", "\"id\":0,");
+        collector.checkThat(describeMismatch(matcher, unordered), startsWith("Found unordered elements"));
+        collector.checkThat(matcher, MemoryMatchers.retainsAtMost(16 * 1024));
+    }
+
+    private static Object nextValue(JsonPullParser parser) throws IOException {
+        parser.next();
+        return parser.getValue();
+    }
+
+    private static <T> String describeMismatch(Matcher<T> matcher, T item) {
+        var description = new StringDescription();
+        if (!matcher.matches(item)) {
+            matcher.describeMismatch(item, description);
+        }
+        return description.toString();
+    }
+
+    private static byte[] largeArray(int size) {
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"name\":\"item ").append(i).append("\",\"id\":").append(i)
+                    .append(",\"tags\":[\"x\",{\"y\":null}]}");
+        }
+        return sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class CountingInputStream extends ByteArrayInputStream {
+
+        private int reads;
+
+        CountingInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            reads++;
+            return super.read(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.seregamorph.hamcrest;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+@SuppressWarnings({"CodeBlock2Expr", "Convert2MethodRef"})
+public class LambdaIndexTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void shouldFindBlockLambdaLocation() {
+        ThrowingFunction<String, String> fun = str -> {
+            return str.trim();
+        };
+
+        assertLocationSameAsClassFile(fun);
+    }
+
+    @Test
+    public void shouldFindExpressionLambdaLocation() {
+        ThrowingFunction<String, String> fun =
+                str -> str.trim();
+
+        assertLocationSameAsClassFile(fun);
+    }
+
+    @Test
+    public void shouldFindNestedClassLambdaLocation() {
+        assertLocationSameAsClassFile(Nested.FUNCTION);
+    }
+
+    @Test
+    public void shouldFindLocationOfSeveralLambdasInMethod() {
+        ThrowingFunction<String, String> fun1 = str -> str.trim();
+        ThrowingFunction<String, String> fun2 = str -> str.strip();
+
+        assertLocationSameAsClassFile(fun1);
+        assertLocationSameAsClassFile(fun2);
+        collector.checkThat(findDescription(fun1), not(equalTo(findDescription(fun2))));
+    }
+
+    @Test
+    public void shouldFindNestedLambdaLocation() throws Exception {
+        ThrowingSupplier<ThrowingFunction<String, String>> supplier = () -> str -> str.trim();
+
+        assertLocationSameAsClassFile(supplier.get());
+    }
+
+    @Test
+    public void shouldFindMethodReferenceDescription() {
+        ThrowingFunction<String, String> trim = String::trim;
+        ThrowingFunction<String, StringBuilder> constructor = StringBuilder::new;
+
+        collector.checkThat(findDescription(trim), equalTo("String.trim"));
+        collector.checkThat(findDescription(constructor), equalTo("StringBuilder(String)"));
+    }
+
+    @Test
+    public void shouldFindNonAsciiMethodReferenceDescription() {
+        ThrowingFunction<String, String> fun = LambdaIndexTest::überTrim;
+
+        collector.checkThat(findDescription(fun), equalTo("LambdaIndexTest.überTrim"));
+    }
+
+    @Test
+    public void whereShouldUseRecordedLocation() {
+        ThrowingFunction<String, Integer> fun = str -> str.length();
+
+        collector.checkThat(MethodUtils.getLambdaShortReference(fun), startsWith("LambdaIndexTest.java:"));
+    }
+
+    private void assertLocationSameAsClassFile(ThrowingFunction<String, String> fun) {
+        var method = TestLambdaUtils.unreferenceLambdaMethod(fun);
+        // resolved via javassist
+        var classFileLocation = MethodUtils.getMethodShortReference(method);
+
+        collector.checkThat(findDescription(fun), equalTo(classFileLocation));
+    }
+
+    private static String findDescription(ThrowingFunction<String, ?> fun) {
+        return LambdaIndex.findDescription(fun.getClass().getClassLoader(), TestLambdaUtils.getSerializedLambda(fun));
+    }
+
+    private static String überTrim(String str) {
+        return str.trim();
+    }
+
+    private static class Nested {
+
+        static final ThrowingFunction<String, String> FUNCTION = str -> {
+            return str.toUpperCase();
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.seregamorph.hamcrest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+@SuppressWarnings({"CodeBlock2Expr", "Convert2MethodRef"})
+public class LambdaReferenceCacheTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldShareEntryBetweenInstances() throws Exception {
+        var directory = temporaryFolder.newFolder().toPath().resolve("cache");
+        ThrowingFunction<String, Integer> fun = str -> str.length();
+        var key = LambdaReferenceCache.key(fun.getClass().getClassLoader(), TestLambdaUtils.getSerializedLambda(fun));
+
+        collector.checkThat(new LambdaReferenceCache(directory).get(key), nullValue());
+        new LambdaReferenceCache(directory).put(key, "SampleTest.java:10");
+
+        collector.checkThat(new LambdaReferenceCache(directory).get(key), equalTo("SampleTest.java:10"));
+        // no temporary files left
+        try (var files = Files.list(directory)) {
+            collector.checkThat(files.collect(Collectors.toList()), hasSize(1));
+        }
+    }
+
+    @Test
+    public void shouldSeparateEntriesByImplMethod() throws Exception {
+        var cache = new LambdaReferenceCache(temporaryFolder.newFolder().toPath());
+        ThrowingFunction<String, Integer> fun1 = str -> str.length();
+        ThrowingFunction<String, String> fun2 = str -> str.trim();
+        var loader = getClass().getClassLoader();
+
+        var key1 = LambdaReferenceCache.key(loader, TestLambdaUtils.getSerializedLambda(fun1));
+        var key2 = LambdaReferenceCache.key(loader, TestLambdaUtils.getSerializedLambda(fun2));
+        cache.put(key1, "first");
+
+        collector.checkThat(key2, not(equalTo(key1)));
+        collector.checkThat(cache.get(key1), equalTo("first"));
+        collector.checkThat(cache.get(key2), nullValue());
+    }
+
+    @Test
+    public void shouldWriteAndReadConcurrently() throws Exception {
+        var directory = temporaryFolder.newFolder().toPath();
+        ThrowingFunction<String, Integer> fun = str -> str.length();
+        var key = LambdaReferenceCache.key(getClass().getClassLoader(), TestLambdaUtils.getSerializedLambda(fun));
+        var expected = "SampleTest.java:20";
+
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<String>>();
+            for (int i = 0; i < 64; i++) {
+                // separate instances like in separate JVMs
+                var cache = new LambdaReferenceCache(directory);
+                tasks.add(() -> {
+                    cache.put(key, expected);
+                    return cache.get(key);
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                collector.checkThat(future.get(), equalTo(expected));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
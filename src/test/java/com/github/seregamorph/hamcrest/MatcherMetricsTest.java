@@ -0,0 +1,84 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.MoreMatchers.where;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.IOException;
+import org.hamcrest.Matcher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+public class MatcherMetricsTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void shouldNotInstrumentWhenDisabled() {
+        Matcher<String> matcher = equalTo("value");
+
+        collector.checkThat(MatcherMetrics.getGlobal(), nullValue());
+        collector.checkThat(MatcherMetrics.instrumented("factory", matcher), sameInstance(matcher));
+    }
+
+    @Test
+    public void shouldCountInvocationsPerCallSite() {
+        var metrics = new MatcherMetrics();
+        ThrowingFunction<String, Integer> length = String::length;
+        Matcher<String> matcher = metrics.instrument("MoreMatchers.where", length, where(length, is(3)));
+
+        collector.checkThat("abc", matcher);
+        collector.checkThat("ab", not(matcher));
+        collector.checkThat("abc", metrics.instrument("MoreMatchers.where", length, where(length, is(3))));
+        collector.checkThat("abc", metrics.instrument("StringMatchers.matches", null, StringMatchers.matches("a.c")));
+
+        var rows = metrics.rows();
+        collector.checkThat(rows, hasSize(2));
+        var whereRow = rows.stream()
+                .filter(row -> row.factory.equals("MoreMatchers.where"))
+                .findFirst().orElseThrow();
+        collector.checkThat(whereRow.callSite, equalTo("String.length"));
+        collector.checkThat(whereRow.invocations, is(3L));
+        collector.checkThat(whereRow.successes, is(2L));
+        collector.checkThat(whereRow.failures, is(1L));
+        collector.checkThat(whereRow.totalNanos, greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void shouldDelegateDescription() {
+        var metrics = new MatcherMetrics();
+        Matcher<String> matcher = metrics.instrument("factory", null, equalTo("value"));
+
+        collector.checkThat(matcher.toString(), equalTo("\"value\""));
+    }
+
+    @Test
+    public void shouldWriteCsvAndJson() throws IOException {
+        var metrics = new MatcherMetrics();
+        metrics.instrument("OptionalMatchers.isEmpty", null, equalTo("a,b")).matches("a,b");
+
+        var csv = new StringBuilder();
+        metrics.writeCsv(csv);
+        collector.checkThat(csv.toString(), startsWith(
+                "factory,callSite,invocations,successes,failures,totalNanos,avgNanos,allocatedBytes\n"
+                        + "OptionalMatchers.isEmpty,,1,1,0,"));
+
+        var json = new StringBuilder();
+        metrics.writeJson(json);
+        collector.checkThat(json.toString(), containsString(
+                "{\"factory\": \"OptionalMatchers.isEmpty\", \"callSite\": \"\", \"invocations\": 1, "
+                        + "\"successes\": 1, \"failures\": 0, \"totalNanos\": "));
+
+        metrics.reset();
+        collector.checkThat(metrics.rows(), hasSize(0));
+    }
+}
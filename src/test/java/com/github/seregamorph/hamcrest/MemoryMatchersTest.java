@@ -0,0 +1,151 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.MemoryMatchers.retainsAtMost;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class MemoryMatchersTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldMeasurePrimitiveArray() {
+        var size = RetainedSize.measure(new long[1_000], obj -> false).getTotalBytes();
+
+        collector.checkThat(size, is(greaterThan(8_000L)));
+        collector.checkThat(size, is(lessThan(8_000L + 32L)));
+        collector.checkThat(new long[1_000], retainsAtMost(8_032L));
+        collector.checkThat(new long[1_000], not(retainsAtMost(8_000L)));
+    }
+
+    @Test
+    public void shouldCountSharedObjectsOnce() {
+        var shared = new byte[10_000];
+        var list = new ArrayList<byte[]>();
+        for (int i = 0; i < 100; i++) {
+            list.add(shared);
+        }
+
+        collector.checkThat(list, retainsAtMost(11_000L));
+    }
+
+    @Test
+    public void shouldExcludeObjects() {
+        var shared = new byte[1_000_000];
+        var holder = new Node(shared, null);
+
+        collector.checkThat(holder, not(retainsAtMost(1_000L)));
+        collector.checkThat(holder, retainsAtMost(1_000L, obj -> obj == shared));
+    }
+
+    @Test
+    public void shouldExcludeSharedJvmObjects() {
+        var holder = new Node(new Object[]{String.class, Thread.currentThread(), TimeUnit.SECONDS}, null);
+
+        collector.checkThat(holder, retainsAtMost(100L));
+    }
+
+    @Test
+    public void shouldWalkCycles() {
+        var first = new Node(null, null);
+        var second = new Node(null, first);
+        first.next = second;
+
+        var retainedSize = RetainedSize.measure(first, obj -> false);
+        collector.checkThat(retainedSize.getObjectCount(), is(2L));
+    }
+
+    @Test
+    public void shouldWalkDeepGraphs() {
+        var list = new LinkedList<Integer>();
+        for (int i = 0; i < 100_000; i++) {
+            list.add(i);
+        }
+
+        var retainedSize = RetainedSize.measure(list, obj -> false);
+        collector.checkThat(retainedSize.getObjectCount(), is(greaterThan(200_000L)));
+        collector.checkThat(retainedSize.getInaccessibleCount(), is(0L));
+    }
+
+    @Test
+    public void shouldDescribeTopClasses() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: retains at most 1,024 bytes"),
+                containsString("but: retained "),
+                containsString(" bytes in 2,002 objects, object layout: "),
+                containsString("shallow bytes by class:"),
+                containsString("1,000 objects  java.util.HashMap$Node"),
+                containsString("1,000 objects  java.lang.Integer"),
+                containsString("1 objects  java.util.HashMap$Node[]")
+        ));
+
+        // Integer values are shared with the keys
+        var map = new HashMap<Integer, Integer>();
+        for (int i = 1_000; i < 2_000; i++) {
+            Integer key = i;
+            map.put(key, key);
+        }
+        assertThat(map, retainsAtMost(1_024L));
+    }
+
+    @Test
+    public void shouldEstimateIndexFootprint() {
+        List<String> index = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            index.add("entry-" + i);
+        }
+
+        // String + byte[] per entry, about 56 bytes with compressed oops
+        collector.checkThat(index, retainsAtMost(10L * 1024 * 1024));
+        collector.checkThat(index, not(retainsAtMost(4L * 1024 * 1024)));
+    }
+
+    @Test
+    public void shouldFillFieldGapsAsHotSpot() {
+        // with 12 bytes header the int field is placed before the long one, like the value of Long is
+        Assume.assumeThat(ObjectLayout.getHeaderSize(), is(12));
+
+        collector.checkThat(ObjectLayout.of(LongAndInt.class).shallowSize(new LongAndInt()), is(24L));
+        collector.checkThat(ObjectLayout.of(Long.class).shallowSize(1L), is(24L));
+        collector.checkThat(ObjectLayout.of(Node.class).shallowSize(new Node(null, null)),
+                is(ObjectLayout.getReferenceSize() == 4 ? 24L : 32L));
+    }
+
+    private static class Node {
+
+        private final Object value;
+        private Node next;
+
+        private Node(Object value, Node next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static class LongAndInt {
+
+        private long first;
+        private int second;
+    }
+}
@@ -1,13 +1,27 @@
 package com.github.seregamorph.hamcrest;
 
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 import org.junit.rules.ExpectedException;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.seregamorph.hamcrest.MoreMatchers.deeplyEqualTo;
+import static com.github.seregamorph.hamcrest.MoreMatchers.everyItemInParallel;
+import static com.github.seregamorph.hamcrest.MoreMatchers.hasItemInParallel;
 import static com.github.seregamorph.hamcrest.MoreMatchers.predicate;
 import static com.github.seregamorph.hamcrest.MoreMatchers.where;
 import static org.hamcrest.Matchers.allOf;
@@ -18,6 +32,8 @@ import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
@@ -147,6 +163,247 @@ public class MoreMatchersTest {
         collector.checkThat(list, everyItem(where(Integer::new, greaterThan(5))));
     }
 
+    @Test
+    public void everyItemInParallelShouldMatch() {
+        List<Integer> list = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+        collector.checkThat(list, everyItemInParallel(lessThan(10_000)));
+        collector.checkThat(list, not(everyItemInParallel(lessThan(9_999))));
+        var pool = new ForkJoinPool(3);
+        try {
+            collector.checkThat(new LinkedList<>(list), everyItemInParallel(lessThan(10_000), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void everyItemInParallelShouldReportLowestIndex() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: every item is Object that matches a value less than <100> "
+                + "after call Integer.intValue\n"
+                + "     but: an item at index 100 <100> was equal to <100>");
+
+        List<Integer> list = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        var pool = new ForkJoinPool(4);
+        try {
+            assertThat(list, everyItemInParallel(where(Integer::intValue, lessThan(100)), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void hasItemInParallelShouldMatch() {
+        List<SamplePojo> list = IntStream.range(0, 1_000)
+                .mapToObj(i -> new SamplePojo().setName("name" + i))
+                .collect(Collectors.toList());
+
+        collector.checkThat(list, hasItemInParallel(where(SamplePojo::getName, equalTo("name999"))));
+        collector.checkThat(list, not(hasItemInParallel(where(SamplePojo::getName, equalTo("name1000")))));
+        collector.checkThat(List.<SamplePojo>of(), not(hasItemInParallel(where(SamplePojo::getName, equalTo("")))));
+    }
+
+    @Test
+    public void hasItemInParallelShouldReportMismatch() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: a collection containing <3>\n"
+                + "     but: no item of 2 matched, the first was <1>");
+
+        collector.checkThat(Arrays.asList(1, 2), hasItemInParallel(equalTo(3)));
+    }
+
+    @Test
+    public void deeplyEqualToShouldCompareFields() {
+        collector.checkThat(order("a", 1.0, 2.0), deeplyEqualTo(order("a", 1.0, 2.0)));
+        collector.checkThat(order("a", 1.0, 2.0), not(deeplyEqualTo(order("a", 1.0, 2.5))));
+        collector.checkThat(order("a", 1.0, 2.0), not(deeplyEqualTo(order("b", 1.0, 2.0))));
+        collector.checkThat(new int[]{1, 2}, deeplyEqualTo(new int[]{1, 2}));
+        collector.checkThat(new ArrayList<>(List.of(1, 2)), deeplyEqualTo(List.of(1, 2)));
+        collector.checkThat(Map.of("a", new SamplePojo().setName("x")),
+                deeplyEqualTo(Map.of("a", new SamplePojo().setName("x"))));
+    }
+
+    @Test
+    public void deeplyEqualToShouldReportPathOfDifference() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("but: order.items[3].price was <10.5>, expected <10.0>");
+
+        assertThat(order("a", 1.0, 2.0, 3.0, 10.5), deeplyEqualTo(order("a", 1.0, 2.0, 3.0, 10.0)));
+    }
+
+    @Test
+    public void deeplyEqualToShouldReportSizeAndTypeDifference() {
+        collector.checkThat(describeMismatch(deeplyEqualTo(order("a", 1.0)), order("a", 1.0, 2.0)),
+                equalTo("order.items size was 2, expected 1"));
+        collector.checkThat(describeMismatch(deeplyEqualTo(order("a", 1.0)), order(null, 1.0)),
+                equalTo("order.id was null, expected \"a\""));
+        collector.checkThat(describeMismatch(deeplyEqualTo(Map.of("a", 1)), Map.of("b", 1)),
+                equalTo("map has no key \"a\""));
+        collector.checkThat(describeMismatch(deeplyEqualTo(List.<Object>of(1L)), List.<Object>of(1)),
+                equalTo("list[0] was an instance of java.lang.Integer, expected java.lang.Long"));
+    }
+
+    @Test
+    public void deeplyEqualToShouldComparePrimitiveArraysAndAtomics() {
+        collector.checkThat(describeMismatch(deeplyEqualTo(new long[]{1L, 2L, 3L}), new long[]{1L, 5L, 3L}),
+                equalTo("array[1] was <5>, expected <2>"));
+        collector.checkThat(new double[]{Double.NaN}, deeplyEqualTo(new double[]{Double.NaN}));
+        collector.checkThat(describeMismatch(deeplyEqualTo(new double[]{0.0}), new double[]{-0.0}),
+                equalTo("array[0] was <-0.0>, expected <0.0>"));
+        collector.checkThat(new AtomicReference<>(new SamplePojo().setName("x")),
+                deeplyEqualTo(new AtomicReference<>(new SamplePojo().setName("x"))));
+        collector.checkThat(describeMismatch(deeplyEqualTo(List.of(new AtomicInteger(1))),
+                List.of(new AtomicInteger(2))), equalTo("list[0].get() was <2>, expected <1>"));
+    }
+
+    @Test
+    public void deeplyEqualToShouldSupportCycles() {
+        var actual = new Node();
+        actual.next = new Node();
+        actual.next.next = actual;
+        var expected = new Node();
+        expected.next = new Node();
+        expected.next.next = expected;
+
+        collector.checkThat(actual, deeplyEqualTo(expected));
+        expected.next.value = 1;
+        collector.checkThat(describeMismatch(deeplyEqualTo(expected), actual),
+                equalTo("node.next.value was <0>, expected <1>"));
+    }
+
+    @Test
+    public void deeplyEqualToShouldSupportDeepGraphs() {
+        var actual = new LinkedList<SamplePojo>();
+        var expected = new LinkedList<SamplePojo>();
+        for (int i = 0; i < 100_000; i++) {
+            actual.add(new SamplePojo().setName("name" + i));
+            expected.add(new SamplePojo().setName("name" + i));
+        }
+
+        collector.checkThat(actual, deeplyEqualTo(expected));
+    }
+
+    @Test
+    public void wherePathShouldExtractNestedProperties() {
+        var person = new Person(new Address("Berlin"), List.of(new Tag("a"), new Tag("b")), true);
+
+        collector.checkThat(person, where("address.city", equalTo("Berlin")));
+        collector.checkThat(person, where("tags[1].name", equalTo("b")));
+        collector.checkThat(person, where("verified", is(true)));
+        collector.checkThat(person, where("tags.size", is(2)));
+        collector.checkThat(new Tag[]{new Tag("c")}, where("[0].name", equalTo("c")));
+        collector.checkThat(person, not(where("address.city", equalTo("Paris"))));
+    }
+
+    @Test
+    public void wherePathShouldGiveDiagnostics() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: Object that matches \"Paris\" after call address.city\n"
+                + "     but: was \"Berlin\"");
+
+        assertThat(new Person(new Address("Berlin"), List.of(), false), where("address.city", equalTo("Paris")));
+    }
+
+    @Test
+    public void wherePathShouldReportMissingValues() {
+        var person = new Person(null, List.of(new Tag("a")), false);
+
+        collector.checkThat(describeMismatch(where("address.city", equalTo("Berlin")), person),
+                equalTo("address was null"));
+        collector.checkThat(describeMismatch(where("tags[3].name", equalTo("a")), person),
+                equalTo("tags[3] does not exist, size was 1"));
+    }
+
+    @Test
+    public void wherePathShouldRejectMalformedPath() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid property name at 8 of property path address..city");
+
+        where("address..city", equalTo("Berlin"));
+    }
+
+    @Test
+    public void wherePathShouldFailOnUnknownProperty() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("No readable property zip in " + Address.class.getName());
+
+        assertThat(new Address("Berlin"), where("zip", equalTo("10115")));
+    }
+
+    private static <T> String describeMismatch(Matcher<T> matcher, T item) {
+        var description = new StringDescription();
+        if (!matcher.matches(item)) {
+            matcher.describeMismatch(item, description);
+        }
+        return description.toString();
+    }
+
+    private static Order order(String id, double... prices) {
+        var order = new Order();
+        order.id = id;
+        for (double price : prices) {
+            var item = new Item();
+            item.price = BigDecimal.valueOf(price);
+            order.items.add(item);
+        }
+        return order;
+    }
+
+    private static class Order {
+
+        private String id;
+        private final List<Item> items = new ArrayList<>();
+    }
+
+    private static class Item {
+
+        private BigDecimal price;
+    }
+
+    private static class Node {
+
+        private int value;
+        private Node next;
+    }
+
+    private static class Person {
+
+        private final Address address;
+        private final List<Tag> tags;
+        private final boolean verified;
+
+        Person(Address address, List<Tag> tags, boolean verified) {
+            this.address = address;
+            this.tags = tags;
+            this.verified = verified;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public List<Tag> getTags() {
+            return tags;
+        }
+
+        public boolean isVerified() {
+            return verified;
+        }
+    }
+
+    private record Address(String city) {
+    }
+
+    private static class Tag {
+
+        public final String name;
+
+        Tag(String name) {
+            this.name = name;
+        }
+    }
+
     private static class SamplePojo {
 
         private String name;
@@ -0,0 +1,109 @@
+package com.github.seregamorph.hamcrest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.SerializedLambda;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+@SuppressWarnings({"CodeBlock2Expr", "Convert2MethodRef"})
+public class NativeImageFeatureTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void shouldFindLambdaCapturingClasses() throws Exception {
+        Path testClasses = Paths.get(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        var classNames = NativeImageFeature.findLambdaCapturingClasses(testClasses);
+
+        collector.checkThat(classNames, hasItem(getClass().getName()));
+        collector.checkThat(classNames, hasItem(MoreMatchersTest.class.getName()));
+        collector.checkThat(classNames, not(hasItem(ThrowingBiFunction.class.getName())));
+    }
+
+    @Test
+    public void shouldDetectSerializableLambdaInClassFile() throws Exception {
+        collector.checkThat(NativeImageFeature.capturesSerializableLambda(classFile(NativeImageFeatureTest.class)),
+                equalTo(true));
+        collector.checkThat(NativeImageFeature.capturesSerializableLambda(classFile(ThrowingBiFunction.class)),
+                equalTo(false));
+    }
+
+    @Test
+    public void shouldCaptureSerializedLambdaViaSerialization() {
+        ThrowingFunction<String, Integer> fun = String::length;
+
+        var serializedLambda = TestLambdaUtils.captureSerializedLambda(fun);
+
+        collector.checkThat(serializedLambda.getImplClass(), equalTo("java/lang/String"));
+        collector.checkThat(serializedLambda.getImplMethodName(), equalTo("length"));
+    }
+
+    @Test
+    public void shouldNotCaptureNonSerializableCapturedArgument() {
+        var nonSerializable = new Object();
+        ThrowingFunction<String, Boolean> fun = str -> str.equals(nonSerializable);
+
+        // the captured arguments are not written
+        var serializedLambda = TestLambdaUtils.captureSerializedLambda(fun);
+
+        collector.checkThat(serializedLambda.getCapturedArgCount(), equalTo(1));
+    }
+
+    @Test
+    public void shouldDescribeMethodReferenceBySignature() {
+        ThrowingFunction<String, Integer> fun = String::length;
+        ThrowingFunction<String, Integer> staticFun = Integer::parseInt;
+
+        collector.checkThat(MethodUtils.getSignatureShortReference(serializedLambda(fun)), equalTo("String.length"));
+        collector.checkThat(MethodUtils.getSignatureShortReference(serializedLambda(staticFun)),
+                equalTo("Integer.parseInt"));
+    }
+
+    @Test
+    public void shouldDescribeConstructorReferenceBySignature() {
+        ThrowingFunction<String, StringBuilder> fun = StringBuilder::new;
+        ThrowingFunction<char[][], Pojo> arrayFun = Pojo::new;
+
+        collector.checkThat(MethodUtils.getSignatureShortReference(serializedLambda(fun)),
+                equalTo("StringBuilder(String)"));
+        collector.checkThat(MethodUtils.getSignatureShortReference(serializedLambda(arrayFun)),
+                equalTo("Pojo(char[][])"));
+        collector.checkThat(serializedLambda(arrayFun).getImplMethodKind(),
+                equalTo(MethodHandleInfo.REF_newInvokeSpecial));
+    }
+
+    @Test
+    public void shouldNotDescribeSyntheticLambdaBySignature() {
+        ThrowingFunction<String, Integer> fun = str -> {
+            return str.length();
+        };
+
+        collector.checkThat(MethodUtils.getSignatureShortReference(serializedLambda(fun)), nullValue());
+    }
+
+    private static SerializedLambda serializedLambda(ThrowingFunction<?, ?> fun) {
+        return TestLambdaUtils.captureSerializedLambda(fun);
+    }
+
+    private static byte[] classFile(Class<?> cls) throws Exception {
+        return Files.readAllBytes(Paths.get(cls.getResource(cls.getSimpleName() + ".class").toURI()));
+    }
+
+    private static class Pojo {
+
+        Pojo(char[][] chars) {
+        }
+    }
+}
@@ -1,19 +1,41 @@
 package com.github.seregamorph.hamcrest;
 
+import static com.github.seregamorph.hamcrest.OrderMatchers.orderedRecordFile;
 import static com.github.seregamorph.hamcrest.OrderMatchers.softOrdered;
+import static com.github.seregamorph.hamcrest.OrderMatchers.softOrderedIncrementally;
+import static com.github.seregamorph.hamcrest.OrderMatchers.softOrderedRecords;
 import static com.github.seregamorph.hamcrest.OrderMatchers.strictOrdered;
+import static com.github.seregamorph.hamcrest.OrderMatchers.strictOrderedIncrementally;
+import static com.github.seregamorph.hamcrest.OrderMatchers.strictOrderedRecordFile;
+import static com.github.seregamorph.hamcrest.OrderMatchers.strictOrderedRecords;
 import static java.util.Collections.singleton;
 import static java.util.Comparator.comparing;
 import static java.util.Comparator.reverseOrder;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 public class OrderMatchersTest {
 
@@ -23,6 +45,9 @@ public class OrderMatchersTest {
     @Rule
     public final ExpectedException expectedException = ExpectedException.none();
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void strictOrderedSingleShouldSuccess() {
         collector.checkThat(singleton(1), strictOrdered());
@@ -77,4 +102,317 @@ public class OrderMatchersTest {
         assertThat(list, strictOrdered(comparing(String::length).reversed()));
     }
 
+    @Test
+    public void sortedSetWithSameComparatorShouldSuccessWithoutIteration() {
+        var set = new TreeSet<Integer>(reverseOrder()) {
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        set.addAll(Arrays.asList(1, 2, 3));
+
+        collector.checkThat(set, strictOrdered(reverseOrder()));
+        collector.checkThat(set, softOrdered(reverseOrder()));
+    }
+
+    @Test
+    public void sortedSetWithOtherComparatorShouldBeIterated() {
+        var set = new TreeSet<>(Arrays.asList(1, 2, 3));
+
+        collector.checkThat(set, strictOrdered());
+        collector.checkThat(set, not(strictOrdered(reverseOrder())));
+    }
+
+    @Test
+    public void sortedMapKeySetShouldSuccess() {
+        var map = new TreeMap<String, Integer>();
+        map.put("b", 2);
+        map.put("a", 1);
+
+        collector.checkThat(map.keySet(), strictOrdered());
+        collector.checkThat(map.descendingKeySet(), strictOrdered(reverseOrder()));
+    }
+
+    @Test
+    public void randomAccessListShouldBeTraversedByIndex() {
+        List<Integer> list = new IndexedList(1, 2, 2, 3);
+
+        collector.checkThat(list, softOrdered());
+        collector.checkThat(list, not(strictOrdered()));
+    }
+
+    @Test
+    public void randomAccessListShouldReportUnorderedElements() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Found unordered elements 3 and 2");
+
+        collector.checkThat(new IndexedList(1, 3, 2), softOrdered());
+    }
+
+    @Test
+    public void incrementalShouldCheckOnlyAppendedTail() {
+        var list = new CountingList();
+        var matcher = strictOrderedIncrementally(Integer::compare);
+
+        collector.checkThat(list, matcher);
+        list.addAll(Arrays.asList(1, 2, 3));
+        collector.checkThat(list, matcher);
+        collector.checkThat(list.gets, is(3));
+
+        list.addAll(Arrays.asList(4, 5));
+        list.gets = 0;
+        collector.checkThat(list, matcher);
+        // last verified element identity check + last verified element + 2 appended
+        collector.checkThat(list.gets, is(4));
+    }
+
+    @Test
+    public void incrementalShouldFailOnUnorderedTail() {
+        var list = new ArrayList<>(Arrays.asList(1, 2, 3));
+        var matcher = softOrderedIncrementally(Integer::compare);
+
+        collector.checkThat(list, matcher);
+        list.add(0);
+        collector.checkThat(list, not(matcher));
+        // failure does not advance the verified state
+        collector.checkThat(list, not(matcher));
+        list.set(3, 3);
+        collector.checkThat(list, matcher);
+    }
+
+    @Test
+    public void incrementalShouldRescanChangedList() {
+        var matcher = strictOrderedIncrementally(Integer::compare);
+        var list = new ArrayList<>(Arrays.asList(1, 2, 3));
+
+        collector.checkThat(list, matcher);
+        // shrunk
+        list.remove(2);
+        list.set(0, 5);
+        collector.checkThat(list, not(matcher));
+        // another list
+        collector.checkThat(new ArrayList<>(Arrays.asList(2, 1)), not(matcher));
+        // last verified element replaced
+        var replaced = new ArrayList<>(Arrays.asList(1, 2));
+        collector.checkThat(replaced, matcher);
+        replaced.set(0, 9);
+        replaced.set(1, 8);
+        replaced.add(9);
+        collector.checkThat(replaced, not(matcher));
+    }
+
+    @Test
+    public void incrementalShouldAllowAppendWhileChecking() {
+        var list = new ArrayList<>(Arrays.asList(1, 2, 3));
+        // appends to the list during the check
+        var matcher = strictOrderedIncrementally((Integer first, Integer next) -> {
+            if (list.size() < 6) {
+                list.add(list.size() + 1);
+            }
+            return Integer.compare(first, next);
+        });
+
+        collector.checkThat(list, matcher);
+        collector.checkThat(list.size(), is(5));
+        list.add(7);
+        collector.checkThat(list, matcher);
+        list.add(0);
+        collector.checkThat(list, not(matcher));
+    }
+
+    @Test
+    public void incrementalShouldAllowConcurrentAppend() throws Exception {
+        List<Integer> list = Collections.synchronizedList(new ArrayList<>());
+        var matcher = OrderMatchers.<Integer>strictOrderedIncrementally();
+        var appender = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                list.add(i);
+            }
+        });
+        appender.start();
+        while (appender.isAlive()) {
+            assertThat(list, matcher);
+        }
+        appender.join();
+        assertThat(list, matcher);
+    }
+
+    @Test
+    public void incrementalShouldReportIndex() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: Strictly ordered by natural comparator (incrementally verified)\n"
+                + "     but: Found equal elements 3 and 3 at index 3");
+
+        var matcher = OrderMatchers.<Integer>strictOrderedIncrementally();
+        var list = new ArrayList<>(Arrays.asList(1, 2, 3));
+        collector.checkThat(list, matcher);
+        list.add(3);
+        collector.checkThat(list, matcher);
+    }
+
+    @Test
+    public void recordsShouldMatchLongKeys() {
+        var buffer = longRecords(ByteOrder.BIG_ENDIAN, 1, 2, 2, 5);
+
+        collector.checkThat(buffer, softOrderedRecords(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN));
+        collector.checkThat(buffer, not(strictOrderedRecords(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN)));
+        collector.checkThat(buffer.position(), is(0));
+    }
+
+    @Test
+    public void recordsShouldMatchUnsignedKeys() {
+        var buffer = longRecords(ByteOrder.LITTLE_ENDIAN, 1, -1);
+
+        collector.checkThat(buffer, strictOrderedRecords(16, 0, RecordKeyType.UNSIGNED_LONG, ByteOrder.LITTLE_ENDIAN));
+        collector.checkThat(buffer, not(strictOrderedRecords(16, 0, RecordKeyType.LONG, ByteOrder.LITTLE_ENDIAN)));
+        collector.checkThat(buffer, strictOrderedRecords(16, 0, RecordKeyType.UNSIGNED_INT, ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Test
+    public void recordsShouldMatchKeyAtOffset() {
+        var buffer = ByteBuffer.allocate(24)
+                .putInt(3).putInt(1)
+                .putInt(2).putInt(2)
+                .putInt(1).putInt(3);
+        buffer.flip();
+
+        collector.checkThat(buffer, strictOrderedRecords(8, 4, RecordKeyType.INT, ByteOrder.BIG_ENDIAN));
+        collector.checkThat(buffer, not(softOrderedRecords(8, 0, RecordKeyType.INT, ByteOrder.BIG_ENDIAN)));
+    }
+
+    @Test
+    public void recordsShouldReportViolationOffset() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Expected: Strictly ordered 16-byte records by BIG_ENDIAN LONG key at offset 0\n"
+                + "     but: Found unordered keys 5 and 3 at record 2 (offset 32)");
+
+        var buffer = longRecords(ByteOrder.BIG_ENDIAN, 1, 5, 3);
+        collector.checkThat(buffer, strictOrderedRecords(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN));
+    }
+
+    @Test
+    public void recordsShouldReportTrailingBytes() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Found 4 trailing bytes after 1 records");
+
+        var buffer = ByteBuffer.allocate(20);
+        collector.checkThat(buffer, softOrderedRecords(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN));
+    }
+
+    @Test
+    public void recordFileShouldMatch() throws IOException {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, longRecords(ByteOrder.BIG_ENDIAN, 1, 2, 3, 4, 5, 6, 7, 7).array());
+
+        collector.checkThat(file, orderedRecordFile(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN, true, 48));
+        collector.checkThat(file, not(orderedRecordFile(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN, false, 48)));
+        collector.checkThat(file, not(strictOrderedRecordFile(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN)));
+    }
+
+    @Test
+    public void recordFileShouldReportViolationAcrossWindows() throws IOException {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("Found equal keys 7 and 7 at record 7 (offset 112)");
+
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, longRecords(ByteOrder.BIG_ENDIAN, 1, 2, 3, 4, 5, 6, 7, 7).array());
+        collector.checkThat(file, orderedRecordFile(16, 0, RecordKeyType.LONG, ByteOrder.BIG_ENDIAN, false, 48));
+    }
+
+    private static ByteBuffer longRecords(ByteOrder byteOrder, long... keys) {
+        var buffer = ByteBuffer.allocate(keys.length * 16).order(byteOrder);
+        for (long key : keys) {
+            buffer.putLong(key).putLong(-key);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static class IndexedList extends AbstractList<Integer> implements RandomAccess {
+
+        private final Integer[] values;
+
+        IndexedList(Integer... values) {
+            this.values = values;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class CountingList extends ArrayList<Integer> {
+
+        int gets;
+
+        @Override
+        public Integer get(int index) {
+            gets++;
+            return super.get(index);
+        }
+
+        @Override
+        public ListIterator<Integer> listIterator(int index) {
+            var iterator = super.listIterator(index);
+            return new ListIterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Integer next() {
+                    gets++;
+                    return iterator.next();
+                }
+
+                @Override
+                public boolean hasPrevious() {
+                    return iterator.hasPrevious();
+                }
+
+                @Override
+                public Integer previous() {
+                    return iterator.previous();
+                }
+
+                @Override
+                public int nextIndex() {
+                    return iterator.nextIndex();
+                }
+
+                @Override
+                public int previousIndex() {
+                    return iterator.previousIndex();
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+
+                @Override
+                public void set(Integer value) {
+                    iterator.set(value);
+                }
+
+                @Override
+                public void add(Integer value) {
+                    iterator.add(value);
+                }
+            };
+        }
+    }
 }
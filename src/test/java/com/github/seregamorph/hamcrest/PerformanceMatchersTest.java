@@ -0,0 +1,263 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.PerformanceMatchers.allocatesAtMost;
+import static com.github.seregamorph.hamcrest.PerformanceMatchers.completesWithin;
+import static com.github.seregamorph.hamcrest.PerformanceMatchers.latencyPercentile;
+import static com.github.seregamorph.hamcrest.PerformanceMatchers.scalesAs;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assume.assumeTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class PerformanceMatchersTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void completesWithinShouldMatchFastCode() {
+        assertThat(() -> Math.sqrt(2.0), completesWithin(Duration.ofSeconds(1), 10, 100));
+    }
+
+    @Test
+    public void completesWithinShouldFailSlowCodeWithDistribution() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: completes within 1.00ms (3 iterations after 0 warmup)"),
+                containsString("but: max latency was "),
+                containsString("latency distribution of 3 iterations:"),
+                containsString("p99.9"),
+                containsString("max")
+        ));
+
+        assertThat(() -> TimeUnit.MILLISECONDS.sleep(5), completesWithin(Duration.ofMillis(1), 0, 3));
+    }
+
+    @Test
+    public void latencyPercentileShouldMatch() {
+        assertThat(() -> Math.sqrt(2.0),
+                latencyPercentile(50.0, lessThan(Duration.ofSeconds(1)), 10, 100));
+    }
+
+    @Test
+    public void latencyPercentileShouldFail() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: p99 latency a value less than <PT0.001S> (5 iterations after 1 warmup)"),
+                containsString("but: p99 latency <PT0.00"),
+                containsString("latency distribution of 5 iterations:")
+        ));
+
+        assertThat(() -> TimeUnit.MILLISECONDS.sleep(2),
+                latencyPercentile(99.0, lessThan(Duration.ofMillis(1)), 1, 5));
+    }
+
+    @Test
+    public void shouldNotRunAgainToDescribeMismatch() {
+        var counter = new AtomicInteger();
+        try {
+            assertThat(() -> {
+                counter.incrementAndGet();
+                TimeUnit.MILLISECONDS.sleep(2);
+            }, completesWithin(Duration.ofMillis(1), 2, 3));
+        } catch (AssertionError e) {
+            // expected
+        }
+
+        collector.checkThat(counter.get(), is(5));
+    }
+
+    @Test
+    public void allocatesAtMostShouldMatchNonAllocatingCode() {
+        assumeTrue(ThreadAllocation.isSupported());
+        var array = new long[16];
+
+        assertThat(() -> {
+            for (int i = 0; i < array.length; i++) {
+                array[i] += i;
+            }
+        }, allocatesAtMost(0, 1_000, 10_000));
+    }
+
+    @Test
+    public void allocatesAtMostShouldReportBytesPerOperation() {
+        assumeTrue(ThreadAllocation.isSupported());
+        var sink = new ArrayList<Object>();
+
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: allocates at most 64 bytes/op (100 iterations after 10 warmup)"),
+                containsString("but: allocated "),
+                containsString(" bytes/op (")
+        ));
+
+        assertThat(() -> {
+            sink.clear();
+            sink.add(new byte[1024]);
+        }, allocatesAtMost(64, 10, 100));
+    }
+
+    @Test
+    public void scalesAsShouldMatchLinearOperation() {
+        ThrowingFunction<int[], Long> sum = array -> {
+            long result = 0;
+            for (int value : array) {
+                result += value;
+            }
+            return result;
+        };
+
+        assertThat(sum, scalesAs(Complexity.LINEAR, size -> new int[size]));
+        // slower growing complexity is fine
+        assertThat(sum, scalesAs(Complexity.QUADRATIC, size -> new int[size]));
+    }
+
+    @Test
+    public void scalesAsShouldFailQuadraticOperation() {
+        ThrowingFunction<int[], Long> pairs = array -> {
+            long result = 0;
+            for (int value1 : array) {
+                for (int value2 : array) {
+                    result += value1 ^ value2;
+                }
+            }
+            return result;
+        };
+
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage(allOf(
+                containsString("Expected: scales as LINEAR (input sizes 200..3200)"),
+                containsString("but: scaled as "),
+                containsString("LINEAR fit error "),
+                containsString("3200"),
+                containsString("fit errors: CONSTANT")
+        ));
+
+        assertThat(pairs, scalesAs(Complexity.LINEAR, size -> new int[size], 200, 3200));
+    }
+
+    @Test
+    public void scalesAsShouldValidateSizes() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("At least 3 sizes are required to fit");
+
+        scalesAs(Complexity.LINEAR, int[]::new, 1000, 2000);
+    }
+
+    @Test
+    public void scalingShouldFitComplexity() {
+        collector.checkThat(scaling(n -> 500).getBestFit(), is(Complexity.CONSTANT));
+        collector.checkThat(scaling(n -> (long) (50 * Math.log(n))).getBestFit(),
+                is(Complexity.LOG_N));
+        collector.checkThat(scaling(n -> 3 * n).getBestFit(), is(Complexity.LINEAR));
+        collector.checkThat(scaling(n -> (long) (n * Math.log(n))).getBestFit(), is(Complexity.N_LOG_N));
+        collector.checkThat(scaling(n -> n * n / 10).getBestFit(), is(Complexity.QUADRATIC));
+        collector.checkThat(scaling(n -> n * n * n).getBestFit(), is(Complexity.CUBIC));
+    }
+
+    @Test
+    public void scalingShouldRenderTable() {
+        var table = scaling(n -> 3 * n).toTable();
+
+        collector.checkThat(table, containsString("1000"));
+        collector.checkThat(table, containsString("3.00us"));
+        collector.checkThat(table, containsString("LINEAR 0.0%"));
+    }
+
+    private static PerformanceMatchers.Scaling scaling(LongUnaryOperator nanos) {
+        List<Integer> sizes = Arrays.asList(1000, 2000, 4000, 8000, 16000, 32000);
+        return new PerformanceMatchers.Scaling(sizes, sizes.stream().mapToLong(nanos::applyAsLong).toArray());
+    }
+
+    @Test
+    public void shouldWrapException() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("java.lang.IllegalStateException: failure");
+
+        assertThat(() -> {
+            throw new IllegalStateException("failure");
+        }, completesWithin(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void shouldValidatePercentile() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("percentile should be in range (0, 100]: 100.5");
+
+        latencyPercentile(100.5, lessThan(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    public void histogramShouldRecordSmallValuesExactly() {
+        var histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        collector.checkThat(histogram.getTotalCount(), is(100L));
+        collector.checkThat(histogram.getValueAtPercentile(50.0), is(50L));
+        collector.checkThat(histogram.getValueAtPercentile(99.0), is(99L));
+        collector.checkThat(histogram.getValueAtPercentile(100.0), is(100L));
+        collector.checkThat(histogram.getMeanNanos(), is(50L));
+    }
+
+    @Test
+    public void histogramShouldRecordLargeValuesWithinPrecision() {
+        var histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000L);
+        }
+
+        long p90 = histogram.getValueAtPercentile(90.0);
+        collector.checkThat(p90, greaterThanOrEqualTo(9_000_000L));
+        collector.checkThat(p90, lessThanOrEqualTo(9_000_000L * 101 / 100));
+        collector.checkThat(histogram.getValueAtPercentile(100.0), is(10_000_000L));
+    }
+
+    @Test
+    public void histogramBucketShouldContainValue() {
+        for (long value : new long[]{0L, 255L, 256L, 257L, 1_000_003L, Long.MAX_VALUE / 3, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            collector.checkThat(LatencyHistogram.highestValue(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                collector.checkThat(LatencyHistogram.highestValue(index - 1), lessThan(value));
+            }
+        }
+        collector.checkThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE), equalTo(7295));
+    }
+
+    @Test
+    public void histogramShouldRenderTable() {
+        var histogram = new LatencyHistogram();
+        histogram.record(1_500L);
+        histogram.record(2_500_000L);
+
+        var table = histogram.toTable();
+
+        collector.checkThat(table, containsString("p50"));
+        collector.checkThat(table, containsString("1.50us"));
+        collector.checkThat(table, containsString("2.50ms"));
+        collector.checkThat(table.split("\n").length, greaterThan(7));
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.seregamorph.hamcrest;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+/**
+ * Runs against the packaged multi-release jar (failsafe), unlike the unit tests running against target/classes.
+ */
+public class PlatformIT {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Test
+    public void shouldLoadVersionedPlatform() {
+        var expectedVersion = Runtime.version().feature() >= 21 ? 21 : 17;
+        var resource = Platform.class.getClassLoader()
+                .getResource(Platform.class.getName().replace('.', '/') + ".class");
+
+        collector.checkThat(resource.toString(), startsWith("jar:"));
+        collector.checkThat(resource.toString(), endsWith("!/META-INF/versions/" + expectedVersion + "/"
+                + Platform.class.getName().replace('.', '/') + ".class"));
+    }
+
+    @Test
+    public void shouldResolveSerializedLambda() {
+        ThrowingFunction<String, Integer> fun = String::length;
+
+        collector.checkThat(Platform.getSerializedLambda(fun).getImplMethodName(), equalTo("length"));
+        collector.checkThat(MethodUtils.getLambdaShortReference(fun), equalTo("String.length"));
+    }
+
+    @Test
+    public void shouldStartVirtualThreadOnJava21() throws InterruptedException {
+        Thread thread = Platform.startVirtualThread(() -> {
+        });
+        if (Runtime.version().feature() >= 21) {
+            collector.checkThat(thread, notNullValue());
+            thread.join();
+        } else {
+            collector.checkThat(thread == null, is(true));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.seregamorph.hamcrest;
+
+import static com.github.seregamorph.hamcrest.MoreMatchers.where;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import org.junit.rules.ExpectedException;
+
+public class SoftAssertionsTest {
+
+    @Rule
+    public final ErrorCollector collector = new ErrorCollector();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void shouldPassWithoutFailures() {
+        try (var softly = new SoftAssertions()) {
+            collector.checkThat(softly.checkThat(1, equalTo(1)), is(true));
+            collector.checkThat(softly.getFailureCount(), is(0));
+        }
+    }
+
+    @Test
+    public void shouldReportFailuresOnClose() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("2 soft assertion failures\n"
+                + "\n"
+                + "1) \n"
+                + "Expected: <2>\n"
+                + "     but: was <1>\n"
+                + "\n"
+                + "2) length\n"
+                + "Expected: Object that matches a value greater than <5> after call String.length\n"
+                + "     but: <3> was less than <5>");
+
+        try (var softly = new SoftAssertions()) {
+            softly.checkThat(1, equalTo(2));
+            softly.checkThat("length", "abc", where(String::length, greaterThan(5)));
+            softly.checkThat("abc", not(equalTo("x")));
+        }
+    }
+
+    @Test
+    public void shouldRenderLazily() {
+        var describeCount = new AtomicInteger();
+        var matcher = new CountingMatcher(describeCount);
+        var softly = new SoftAssertions();
+
+        softly.checkThat(1, matcher);
+        softly.checkThat(2, matcher);
+        collector.checkThat(softly.getFailureCount(), is(2));
+        collector.checkThat(describeCount.get(), is(0));
+
+        AssertionError error = null;
+        try {
+            softly.verify();
+        } catch (AssertionError e) {
+            error = e;
+        }
+        collector.checkThat(error == null ? null : error.getMessage(),
+                containsString("(and 1 more failure with the same expectation)"));
+        // rendered once per matcher instance
+        collector.checkThat(describeCount.get(), is(1));
+        // the failures are cleared by verify
+        softly.verify();
+    }
+
+    @Test
+    public void shouldDeduplicateAndCapRenderedFailures() {
+        expectedException.expect(AssertionError.class);
+        expectedException.expectMessage("1003 soft assertion failures\n"
+                + "\n"
+                + "1) \n"
+                + "Expected: Object that matches a value greater than <0> after call Integer.intValue\n"
+                + "     but: <-1> was less than <0>\n"
+                + "(and 999 more failures with the same expectation)\n"
+                + "\n"
+                + "2) \n"
+                + "Expected: <1>\n"
+                + "     but: was <2>\n"
+                + "\n"
+                + "... and 2 more failures not rendered");
+
+        try (var softly = new SoftAssertions(2)) {
+            for (int i = 0; i < 1_000; i++) {
+                softly.checkThat(-1, where(Integer::intValue, greaterThan(0)));
+            }
+            softly.checkThat(2, equalTo(1));
+            softly.checkThat(3, equalTo(2));
+            softly.checkThat(4, equalTo(3));
+        }
+    }
+
+    private static class CountingMatcher extends BaseMatcher<Integer> {
+
+        private final AtomicInteger describeCount;
+
+        private CountingMatcher(AtomicInteger describeCount) {
+            this.describeCount = describeCount;
+        }
+
+        @Override
+        public boolean matches(Object actual) {
+            return false;
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            describeCount.incrementAndGet();
+            description.appendText("never");
+        }
+    }
+}
@@ -5,8 +5,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ErrorCollector;
 
+import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Locale;
 
 import static com.github.seregamorph.hamcrest.MoreMatchers.where;
@@ -14,6 +17,8 @@ import static com.github.seregamorph.hamcrest.TestLambdaUtils.parseArgumentClass
 import static com.github.seregamorph.hamcrest.TestLambdaUtils.unreferenceLambdaConstructor;
 import static com.github.seregamorph.hamcrest.TestLambdaUtils.unreferenceLambdaMethod;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertNull;
 
@@ -187,6 +192,32 @@ public class TestLambdaUtilsTest {
         assertConstructor(constructor, String.class);
     }
 
+    @Test
+    public void shouldUnreferenceMethodOfIsolatedClassLoader() throws Exception {
+        try (var loader = new IsolatingClassLoader(LambdaSource.class)) {
+            var isolatedClass = loader.loadClass(LambdaSource.class.getName());
+            var fun = (Serializable) isolatedClass.getMethod("nameReference").invoke(null);
+
+            var method = unreferenceLambdaMethod(fun);
+
+            collector.checkThat(method.getDeclaringClass(), sameInstance(isolatedClass));
+            collector.checkThat(method.getDeclaringClass(), not(sameInstance(LambdaSource.class)));
+            collector.checkThat(method.getName(), equalTo("getName"));
+        }
+    }
+
+    @Test
+    public void shouldDescribeLambdaOfIsolatedClassLoader() throws Exception {
+        try (var loader = new IsolatingClassLoader(LambdaSource.class)) {
+            var isolatedClass = loader.loadClass(LambdaSource.class.getName());
+            var fun = (Serializable) isolatedClass.getMethod("lambda").invoke(null);
+
+            collector.checkThat(MethodUtils.getLambdaShortReference(fun),
+                    equalTo(MethodUtils.getLambdaShortReference(LambdaSource.lambda())));
+            collector.checkThat(MethodUtils.getLambdaShortReference(fun), startsWith("TestLambdaUtilsTest.java:"));
+        }
+    }
+
     private void assertMethod(Method method, String name, Class<?>... parameterTypes) {
         assertMethod(method, equalTo(name), parameterTypes);
     }
@@ -200,6 +231,48 @@ public class TestLambdaUtilsTest {
         collector.checkThat(constructor, where(Constructor::getParameterTypes, equalTo(parameterTypes)));
     }
 
+    /**
+     * Loads the class itself (not its dependencies) child-first like a test framework with isolated class loader.
+     */
+    private static class IsolatingClassLoader extends URLClassLoader {
+
+        private final String isolatedClassName;
+
+        private IsolatingClassLoader(Class<?> isolatedClass) {
+            super(new URL[]{isolatedClass.getProtectionDomain().getCodeSource().getLocation()},
+                    isolatedClass.getClassLoader());
+            this.isolatedClassName = isolatedClass.getName();
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(isolatedClassName)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                var loadedClass = findLoadedClass(name);
+                return loadedClass == null ? findClass(name) : loadedClass;
+            }
+        }
+    }
+
+    public static class LambdaSource {
+
+        public String getName() {
+            return "name";
+        }
+
+        public static ThrowingFunction<LambdaSource, String> nameReference() {
+            return LambdaSource::getName;
+        }
+
+        public static ThrowingFunction<String, Integer> lambda() {
+            return str -> {
+                return str.length();
+            };
+        }
+    }
+
     private static class Pojo {
 
         private boolean booleanField;